@@ -0,0 +1,144 @@
+package com.dgdev91.mcpsql;
+
+import com.dgdev91.mcpsql.model.DatabaseConfig;
+import com.dgdev91.mcpsql.service.ResponseEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures bytes on the wire and server CPU time for each response format and compression,
+ * for tools/call responses of query results. Responses go through the server's own path
+ * (formatToolResult and encodeReply), for plain HTTP clients and for clients that also hold
+ * an SSE connection, which get the response a second time as a JSON event.
+ * Run with: mvn -Pbench compile exec:java
+ */
+public class ResponseEncodingBenchmark {
+    private static final String[] CONTENT_TYPES = {
+        ResponseEncoder.CONTENT_TYPE_JSON, ResponseEncoder.CONTENT_TYPE_SMILE, ResponseEncoder.CONTENT_TYPE_CBOR
+    };
+    private static final String[] FORMAT_NAMES = {"JSON", "Smile", "CBOR"};
+    private static final String[] ENCODINGS = {"identity", "gzip", "br", "zstd"};
+    private static final long WARMUP_MILLIS = 500;
+    private static final long MEASURE_MILLIS = 1500;
+    private static final boolean[] SSE_MODES = {false, true};
+
+    public static void main(String[] args) throws Exception {
+        int[] rowCounts = args.length > 0
+            ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+            : new int[]{100, 2000, 20000};
+
+        Map<String, ResponseEncoder> encoders = new LinkedHashMap<>();
+        for (String encoding : ENCODINGS) {
+            DatabaseConfig config = new DatabaseConfig("jdbc:postgresql://localhost/bench", "", "");
+            config.setHttpCompressionMinBytes(0);
+            config.setHttpCompressionEncodings(encoding.equals("identity") ? "none" : encoding);
+            encoders.put(encoding, new ResponseEncoder(config, new ObjectMapper()));
+        }
+
+        // Compile every path before the first measurement
+        List<Map<String, Object>> warmupRows = generateRows(1000);
+        for (boolean sse : SSE_MODES) {
+            for (int i = 0; i < CONTENT_TYPES.length; i++) {
+                for (String encoding : ENCODINGS) {
+                    runFor(encoders.get(encoding), warmupRows, CONTENT_TYPES[i], encoding, sse, WARMUP_MILLIS);
+                }
+            }
+        }
+
+        for (int rowCount : rowCounts) {
+            List<Map<String, Object>> rows = generateRows(rowCount);
+            for (boolean sse : SSE_MODES) {
+                System.out.println();
+                System.out.println("tools/call response with " + rowCount + " rows of " + rows.get(0).size() + " columns, "
+                    + (sse ? "client with an SSE connection (HTTP reply + JSON event)" : "HTTP client")
+                    + " (size in KB, mean time in ms to build and encode the response, one core)");
+                System.out.println();
+                System.out.println("| Format | " + String.join(" | ", ENCODINGS) + " |");
+                System.out.println("|--------|" + "------|".repeat(ENCODINGS.length));
+                for (int i = 0; i < CONTENT_TYPES.length; i++) {
+                    StringBuilder line = new StringBuilder("| ").append(FORMAT_NAMES[i]).append(" |");
+                    for (String encoding : ENCODINGS) {
+                        Result result = measure(encoders.get(encoding), rows, CONTENT_TYPES[i], encoding, sse);
+                        line.append(String.format(Locale.ROOT, " %.1f KB, %.2f ms |", result.bytes / 1024.0, result.millis));
+                    }
+                    System.out.println(line);
+                }
+            }
+        }
+    }
+
+    /**
+     * Times building the tool result and encoding the response, as the server does for each request.
+     */
+    private static Result measure(ResponseEncoder encoder, List<Map<String, Object>> rows, String accept,
+                                  String acceptEncoding, boolean sse) throws Exception {
+        runFor(encoder, rows, accept, acceptEncoding, sse, WARMUP_MILLIS);
+        long start = System.nanoTime();
+        long iterations = runFor(encoder, rows, accept, acceptEncoding, sse, MEASURE_MILLIS);
+        double millis = (System.nanoTime() - start) / 1e6 / iterations;
+        SqlMcpServer.EncodedReply reply = encode(encoder, rows, accept, acceptEncoding, sse);
+        // SSE events are sent as UTF-8 text, uncompressed
+        long bytes = reply.http().body().length
+            + (reply.sseJson() != null ? reply.sseJson().getBytes(StandardCharsets.UTF_8).length : 0);
+        return new Result(bytes, millis);
+    }
+
+    private static long runFor(ResponseEncoder encoder, List<Map<String, Object>> rows, String accept,
+                               String acceptEncoding, boolean sse, long millis) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        long iterations = 0;
+        do {
+            encode(encoder, rows, accept, acceptEncoding, sse);
+            iterations++;
+        } while (System.nanoTime() < deadline);
+        return iterations;
+    }
+
+    /**
+     * Builds the response as the tools/call handler does: JSON clients get the result as text,
+     * binary clients as structuredContent.
+     */
+    private static SqlMcpServer.EncodedReply encode(ResponseEncoder encoder, List<Map<String, Object>> rows,
+                                                    String accept, String acceptEncoding, boolean sse) throws Exception {
+        Map<String, Object> response = envelope(SqlMcpServer.formatToolResult(rows, encoder.isBinary(accept)));
+        return SqlMcpServer.encodeReply(encoder, response, accept, acceptEncoding, sse);
+    }
+
+    private static Map<String, Object> envelope(Map<String, Object> result) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("jsonrpc", "2.0");
+        response.put("id", 1);
+        response.put("result", result);
+        return response;
+    }
+
+    /**
+     * Rows shaped like an orders query: keys, short strings, timestamps, decimals and nullable text.
+     */
+    private static List<Map<String, Object>> generateRows(int count) {
+        Random random = new Random(42);
+        String[] statuses = {"NEW", "PAID", "SHIPPED", "CANCELLED"};
+        long baseTime = Timestamp.valueOf("2025-01-01 00:00:00").getTime();
+        List<Map<String, Object>> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", 100000 + i);
+            row.put("customer_name", "Customer " + random.nextInt(5000));
+            row.put("email", "user" + random.nextInt(100000) + "@example.com");
+            row.put("created_at", new Timestamp(baseTime + random.nextInt(365 * 24 * 3600) * 1000L));
+            row.put("amount", BigDecimal.valueOf(random.nextInt(10000000), 2));
+            row.put("status", statuses[random.nextInt(statuses.length)]);
+            row.put("notes", random.nextInt(3) == 0 ? null : "Order note \"" + Long.toHexString(random.nextLong()) + "\"");
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private record Result(long bytes, double millis) {
+    }
+}
@@ -1,17 +1,35 @@
 package com.dgdev91.mcpsql;
 
 import com.dgdev91.mcpsql.model.ColumnInfo;
+import com.dgdev91.mcpsql.model.ColumnProfile;
+import com.dgdev91.mcpsql.model.ColumnStatistics;
 import com.dgdev91.mcpsql.model.DatabaseConfig;
+import com.dgdev91.mcpsql.model.ExportJob;
+import com.dgdev91.mcpsql.model.IndexInfo;
+import com.dgdev91.mcpsql.model.QueryPlan;
 import com.dgdev91.mcpsql.model.TableInfo;
+import com.dgdev91.mcpsql.model.TableProfile;
+import com.dgdev91.mcpsql.model.TableStatistics;
 import com.dgdev91.mcpsql.service.DatabaseService;
+import com.dgdev91.mcpsql.service.ExportService;
+import com.dgdev91.mcpsql.service.RelationshipService;
+import com.dgdev91.mcpsql.service.ResponseEncoder;
+import com.dgdev91.mcpsql.service.SchemaIndexService;
+import com.dgdev91.mcpsql.service.SessionScheduler;
+import com.dgdev91.mcpsql.service.TableWatchService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import io.javalin.Javalin;
+import io.javalin.compression.CompressionStrategy;
+import io.javalin.http.Context;
 import io.javalin.http.sse.SseClient;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -19,7 +37,18 @@ public class SqlMcpServer {
     private static final Logger logger = LogManager.getLogger(SqlMcpServer.class);
     private static final ObjectMapper objectMapper = new ObjectMapper();
     private static DatabaseService databaseService;
+    private static ExportService exportService;
+    private static TableWatchService tableWatchService;
+    private static SchemaIndexService schemaIndexService;
+    private static RelationshipService relationshipService;
+    private static SessionScheduler sessionScheduler;
+    private static ResponseEncoder responseEncoder;
+    private static boolean httpMode;
     private static final Map<String, SseClient> sseClients = new ConcurrentHashMap<>();
+    private static final String STDIO_SESSION_ID = "stdio";
+    private static final Caller STDIO_CALLER = new Caller(null, STDIO_SESSION_ID, null, false);
+    // Tools answered from memory; they do not wait for a database slot or count against the rate limit
+    private static final Set<String> IN_MEMORY_TOOLS = Set.of("search_schema", "get_export_status", "unwatch_table");
 
     public static void main(String[] args) {
         logger.info("Starting SQL MCP Server...");
@@ -32,6 +61,20 @@ public class SqlMcpServer {
         String httpPort = System.getenv("JMCP_HTTP_PORT");
         String querySelectOnlyStr = System.getenv("JMCP_QUERY_SELECT_ONLY");
         boolean querySelectOnly = querySelectOnlyStr == null || !querySelectOnlyStr.equalsIgnoreCase("false");
+        String queryMaxCostStr = System.getenv("JMCP_QUERY_MAX_COST");
+        String queryMaxRowsStr = System.getenv("JMCP_QUERY_MAX_ROWS");
+        String lobPreviewLengthStr = System.getenv("JMCP_LOB_PREVIEW_LENGTH");
+        String exportDir = System.getenv("JMCP_EXPORT_DIR");
+        String schemaIndexRefreshStr = System.getenv("JMCP_SCHEMA_INDEX_REFRESH_SECONDS");
+        String maxConcurrentQueriesStr = System.getenv("JMCP_MAX_CONCURRENT_QUERIES");
+        String rateLimitStr = System.getenv("JMCP_RATE_LIMIT_PER_SECOND");
+        String rateLimitBurstStr = System.getenv("JMCP_RATE_LIMIT_BURST");
+        String queueTimeoutStr = System.getenv("JMCP_QUEUE_TIMEOUT_SECONDS");
+        String sessionWeightsStr = System.getenv("JMCP_SESSION_WEIGHTS");
+        String apiKeysStr = System.getenv("JMCP_API_KEYS");
+        String maxSessionsPerAddressStr = System.getenv("JMCP_MAX_SESSIONS_PER_ADDRESS");
+        String httpCompressionMinBytesStr = System.getenv("JMCP_HTTP_COMPRESSION_MIN_BYTES");
+        String httpCompressionStr = System.getenv("JMCP_HTTP_COMPRESSION");
         
         if (jdbcUrl == null || username == null || password == null) {
             logger.error("Missing required environment variables: JMCP_JDBC_URL, JMCP_DB_USERNAME, JMCP_DB_PASSWORD");
@@ -40,13 +83,61 @@ public class SqlMcpServer {
         
         try {
             DatabaseConfig config = new DatabaseConfig(jdbcUrl, username, password, querySelectOnly);
+            if (queryMaxCostStr != null) {
+                config.setMaxQueryCost(Double.parseDouble(queryMaxCostStr));
+            }
+            if (queryMaxRowsStr != null) {
+                config.setMaxQueryRows(Double.parseDouble(queryMaxRowsStr));
+            }
+            if (lobPreviewLengthStr != null) {
+                config.setLobPreviewLength(Integer.parseInt(lobPreviewLengthStr));
+            }
+            config.setExportDirectory(exportDir);
+            if (schemaIndexRefreshStr != null) {
+                config.setSchemaIndexRefreshSeconds(Long.parseLong(schemaIndexRefreshStr));
+            }
+            if (maxConcurrentQueriesStr != null) {
+                config.setMaxConcurrentQueries(Integer.parseInt(maxConcurrentQueriesStr));
+            }
+            if (rateLimitStr != null) {
+                config.setRateLimitPerSecond(Double.parseDouble(rateLimitStr));
+            }
+            if (rateLimitBurstStr != null) {
+                config.setRateLimitBurst(Integer.parseInt(rateLimitBurstStr));
+            }
+            if (queueTimeoutStr != null) {
+                config.setQueueTimeoutSeconds(Long.parseLong(queueTimeoutStr));
+            }
+            if (sessionWeightsStr != null) {
+                config.setSessionWeights(parseSessionWeights(sessionWeightsStr));
+            }
+            if (apiKeysStr != null) {
+                config.setApiKeys(parseApiKeys(apiKeysStr));
+            }
+            if (maxSessionsPerAddressStr != null) {
+                config.setMaxSessionsPerAddress(Integer.parseInt(maxSessionsPerAddressStr));
+            }
+            if (httpCompressionMinBytesStr != null) {
+                config.setHttpCompressionMinBytes(Integer.parseInt(httpCompressionMinBytesStr));
+            }
+            if (httpCompressionStr != null) {
+                config.setHttpCompressionEncodings(httpCompressionStr);
+            }
             databaseService = new DatabaseService(config);
+            exportService = new ExportService(databaseService);
+            tableWatchService = new TableWatchService(databaseService, SqlMcpServer::sendNotification);
+            relationshipService = new RelationshipService(databaseService);
+            sessionScheduler = new SessionScheduler(config);
             databaseService.testConnection();
             
+            schemaIndexService = new SchemaIndexService(databaseService);
+            schemaIndexService.start();
+            
             logger.info("Database connection successful. Type: {}, Query SELECT only: {}", config.getType(), config.isQuerySelectOnly());
             
             // Determine server mode
-            if ("http".equalsIgnoreCase(serverMode)) {
+            httpMode = "http".equalsIgnoreCase(serverMode);
+            if (httpMode) {
                 int port = httpPort != null ? Integer.parseInt(httpPort) : 3000;
                 runHttpServer(port);
             } else {
@@ -61,8 +152,11 @@ public class SqlMcpServer {
     }
 
     private static void runHttpServer(int port) {
+        responseEncoder = new ResponseEncoder(databaseService.getConfig(), objectMapper);
         Javalin app = Javalin.create(config -> {
             config.showJavalinBanner = false;
+            // Compression is negotiated by ResponseEncoder, which also supports zstd and binary formats
+            config.http.customCompression(CompressionStrategy.NONE);
         }).start(port);
         
         logger.info("MCP HTTP Server running on port {}", port);
@@ -76,18 +170,23 @@ public class SqlMcpServer {
                 
                 @SuppressWarnings("unchecked")
                 Map<String, Object> request = objectMapper.readValue(body, Map.class);
-                Map<String, Object> response = handleRequest(request);
+                Caller caller = resolveCaller(ctx);
+                Map<String, Object> response = handleRequest(request, caller);
                 
-                String responseJson = objectMapper.writeValueAsString(response);
-                logger.info("Sending MCP response: {}", responseJson);
+                // Also send the response over the caller's own SSE connection, if it has one
+                SseClient sseClient = caller.clientId() != null ? sseClients.get(caller.clientId()) : null;
+                EncodedReply reply = encodeReply(responseEncoder, response, ctx.header("Accept"),
+                    ctx.header("Accept-Encoding"), sseClient != null);
+                logger.info("Sending MCP response: {} bytes as {}{}", reply.http().body().length,
+                    reply.http().contentType(),
+                    reply.http().contentEncoding() != null ? " (" + reply.http().contentEncoding() + ")" : "");
                 
                 // Send response via HTTP
-                ctx.json(response);
+                writeEncoded(ctx, reply.http());
                 
-                // Also broadcast via SSE to all connected clients
-                for (SseClient client : sseClients.values()) {
+                if (sseClient != null) {
                     try {
-                        client.sendEvent("message", responseJson);
+                        sseClient.sendEvent("message", reply.sseJson());
                     } catch (Exception e) {
                         logger.error("Error sending SSE message to client", e);
                     }
@@ -100,7 +199,8 @@ public class SqlMcpServer {
                     "code", -32603,
                     "message", e.getMessage()
                 ));
-                ctx.status(500).json(errorResponse);
+                ctx.status(500);
+                writeResponse(ctx, errorResponse, null);
             }
         });
         
@@ -110,8 +210,12 @@ public class SqlMcpServer {
             sseClients.put(clientId, client);
             logger.info("New SSE client connected: {}", clientId);
             
+            // Tell the client where to post so its requests can be tied to this connection
+            client.sendEvent("endpoint", "/mcp?sessionId=" + clientId);
+            
             client.onClose(() -> {
                 sseClients.remove(clientId);
+                tableWatchService.unwatchAll(clientId);
                 logger.info("SSE client disconnected: {}", clientId);
             });
             
@@ -119,6 +223,16 @@ public class SqlMcpServer {
             client.keepAlive();
         });
         
+        // Per-session usage and scheduler state, only for callers with a configured API key
+        app.get("/metrics", ctx -> {
+            if (resolveApiKey(ctx) == null) {
+                ctx.status(401);
+                writeResponse(ctx, Map.of("error", "/metrics requires an API key listed in JMCP_API_KEYS"), null);
+                return;
+            }
+            writeResponse(ctx, sessionScheduler.getMetrics(), null);
+        });
+        
         // Health check endpoint
         app.get("/health", ctx -> {
             ctx.json(Map.of(
@@ -130,6 +244,150 @@ public class SqlMcpServer {
         });
     }
 
+    /**
+     * A response encoded for the HTTP reply, and as JSON text for the caller's SSE connection
+     * (null when the caller has none).
+     */
+    record EncodedReply(ResponseEncoder.EncodedResponse http, String sseJson) {
+    }
+
+    /**
+     * Encodes a JSON-RPC response for the HTTP reply and, if the caller has an SSE connection,
+     * for that connection too. JSON is serialized at most once, and only if the reply
+     * (a JSON client) or the event needs it.
+     */
+    static EncodedReply encodeReply(ResponseEncoder encoder, Map<String, Object> response, String accept,
+                                    String acceptEncoding, boolean sse) throws IOException {
+        byte[] json = sse || !encoder.isBinary(accept) ? objectMapper.writeValueAsBytes(response) : null;
+        return new EncodedReply(encoder.encode(response, json, accept, acceptEncoding),
+            sse ? new String(json, StandardCharsets.UTF_8) : null);
+    }
+
+    /**
+     * Writes a response in the format and compression negotiated with the client.
+     */
+    private static void writeResponse(Context ctx, Object body, byte[] json) throws IOException {
+        writeEncoded(ctx, responseEncoder.encode(body, json, ctx.header("Accept"), ctx.header("Accept-Encoding")));
+    }
+
+    private static void writeEncoded(Context ctx, ResponseEncoder.EncodedResponse encoded) {
+        ctx.header("Vary", "Accept, Accept-Encoding");
+        if (encoded.contentEncoding() != null) {
+            ctx.header("Content-Encoding", encoded.contentEncoding());
+        }
+        ctx.contentType(encoded.contentType()).result(encoded.body());
+    }
+
+    /**
+     * Identifies the caller of an HTTP request for scheduling and metrics.
+     */
+    private static Caller resolveCaller(Context ctx) {
+        return new Caller(resolveApiKey(ctx), ctx.ip(), resolveClientId(ctx),
+            responseEncoder.isBinary(ctx.header("Accept")));
+    }
+
+    /**
+     * Returns the API key sent as X-API-Key or as a bearer token, only if it is one of the configured keys.
+     */
+    private static String resolveApiKey(Context ctx) {
+        String apiKey = ctx.header("X-API-Key");
+        if (apiKey == null) {
+            String authorization = ctx.header("Authorization");
+            if (authorization != null && authorization.regionMatches(true, 0, "Bearer ", 0, 7)) {
+                apiKey = authorization.substring(7).trim();
+            }
+        }
+        if (apiKey == null || apiKey.isEmpty()) {
+            return null;
+        }
+        if (!databaseService.getConfig().getApiKeys().contains(apiKey)) {
+            logger.warn("Ignoring unknown API key from {}", ctx.ip());
+            return null;
+        }
+        return apiKey;
+    }
+
+    /**
+     * Returns the SSE connection id sent as the sessionId query parameter or Mcp-Session-Id header,
+     * only if it belongs to a connection that is still open, so clients cannot invent their own ids.
+     */
+    private static String resolveClientId(Context ctx) {
+        String clientId = ctx.queryParam("sessionId");
+        if (clientId == null) {
+            clientId = ctx.header("Mcp-Session-Id");
+        }
+        return clientId != null && sseClients.containsKey(clientId) ? clientId : null;
+    }
+
+    /**
+     * Parses weights given as "apiKey1=2,apiKey2=0.5".
+     */
+    private static Map<String, Double> parseSessionWeights(String value) {
+        Map<String, Double> weights = new HashMap<>();
+        for (String entry : value.split(",")) {
+            int separator = entry.lastIndexOf('=');
+            if (separator > 0) {
+                weights.put(entry.substring(0, separator).trim(), Double.parseDouble(entry.substring(separator + 1).trim()));
+            }
+        }
+        return weights;
+    }
+
+    private static Set<String> parseApiKeys(String value) {
+        Set<String> apiKeys = new HashSet<>();
+        for (String apiKey : value.split(",")) {
+            if (!apiKey.trim().isEmpty()) {
+                apiKeys.add(apiKey.trim());
+            }
+        }
+        return apiKeys;
+    }
+
+    /**
+     * Returns the connection that receives a caller's watch notifications: its SSE connection
+     * in HTTP mode, stdout in stdio mode.
+     */
+    private static String watchOwner(Caller caller) throws SQLException {
+        if (!httpMode) {
+            return STDIO_SESSION_ID;
+        }
+        if (caller.clientId() == null) {
+            throw new SQLException("watch_table needs an open SSE connection: post requests to the endpoint "
+                + "announced by the SSE stream, or send its sessionId as Mcp-Session-Id");
+        }
+        return caller.clientId();
+    }
+
+    /**
+     * Sends a JSON-RPC notification to its owner: over the owner's SSE connection in HTTP mode,
+     * written to stdout in stdio mode.
+     */
+    private static void sendNotification(String owner, Map<String, Object> params) {
+        Map<String, Object> notification = new LinkedHashMap<>();
+        notification.put("jsonrpc", "2.0");
+        notification.put("method", "notifications/watch_table");
+        notification.put("params", params);
+        
+        try {
+            String notificationJson = objectMapper.writeValueAsString(notification);
+            if (httpMode) {
+                SseClient client = sseClients.get(owner);
+                if (client == null) {
+                    // The connection closed between the poll and delivery
+                    tableWatchService.unwatchAll(owner);
+                    return;
+                }
+                client.sendEvent("message", notificationJson);
+            } else {
+                synchronized (System.out) {
+                    System.out.println(notificationJson);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error sending notification", e);
+        }
+    }
+
     private static void runMcpServer() {
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(System.in))) {
             String line;
@@ -137,8 +395,11 @@ public class SqlMcpServer {
                 try {
                     @SuppressWarnings("unchecked")
                     Map<String, Object> request = objectMapper.readValue(line, Map.class);
-                    Map<String, Object> response = handleRequest(request);
-                    System.out.println(objectMapper.writeValueAsString(response));
+                    Map<String, Object> response = handleRequest(request, STDIO_CALLER);
+                    String responseJson = objectMapper.writeValueAsString(response);
+                    synchronized (System.out) {
+                        System.out.println(responseJson);
+                    }
                 } catch (Exception e) {
                     logger.error("Error processing request", e);
                     Map<String, Object> errorResponse = new HashMap<>();
@@ -151,7 +412,7 @@ public class SqlMcpServer {
         }
     }
 
-    private static Map<String, Object> handleRequest(Map<String, Object> request) throws Exception {
+    private static Map<String, Object> handleRequest(Map<String, Object> request, Caller caller) throws Exception {
         String method = (String) request.get("method");
         @SuppressWarnings("unchecked")
         Map<String, Object> params = (Map<String, Object>) request.getOrDefault("params", new HashMap<>());
@@ -164,7 +425,7 @@ public class SqlMcpServer {
             Object result = switch (method) {
                 case "initialize" -> handleInitialize();
                 case "tools/list" -> handleToolsList();
-                case "tools/call" -> handleToolCall(params);
+                case "tools/call" -> handleToolCall(params, caller);
                 default -> throw new IllegalArgumentException("Unknown method: " + method);
             };
             
@@ -239,6 +500,10 @@ public class SqlMcpServer {
                     "table", Map.of(
                         "type", "string",
                         "description", "Table name"
+                    ),
+                    "includeStatistics", Map.of(
+                        "type", "boolean",
+                        "description", "Include catalog-based estimates (row count, size, column null fraction and distinct count, indexes) without scanning the table"
                     )
                 ),
                 "required", List.of("schema", "table")
@@ -291,21 +556,264 @@ public class SqlMcpServer {
             )
         ));
         
+        // Search Schema Tool
+        tools.add(Map.of(
+            "name", "search_schema",
+            "description", "Fuzzy search over schema, table and column names and their comments in all schemas, ranked by relevance. Use it to find the right table instead of listing every schema",
+            "inputSchema", Map.of(
+                "type", "object",
+                "properties", Map.of(
+                    "query", Map.of(
+                        "type", "string",
+                        "description", "Name fragment or words to search for"
+                    ),
+                    "kind", Map.of(
+                        "type", "string",
+                        "enum", List.of("schema", "table", "column"),
+                        "description", "Restrict results to schemas, tables or columns (default: all)"
+                    ),
+                    "limit", Map.of(
+                        "type", "integer",
+                        "description", "Maximum number of results (default: 20)"
+                    )
+                ),
+                "required", List.of("query")
+            )
+        ));
+        
+        // Relationship Tools
+        tools.add(Map.of(
+            "name", "get_relationships",
+            "description", "List foreign-key relationships of a schema, or only those declared by or referencing a given table",
+            "inputSchema", Map.of(
+                "type", "object",
+                "properties", Map.of(
+                    "schema", Map.of(
+                        "type", "string",
+                        "description", "Schema name"
+                    ),
+                    "table", Map.of(
+                        "type", "string",
+                        "description", "Table name (default: all tables in the schema)"
+                    )
+                ),
+                "required", List.of("schema")
+            )
+        ));
+        
+        tools.add(Map.of(
+            "name", "find_join_path",
+            "description", "Find the shortest foreign-key path between two tables and return the join steps and a FROM/JOIN clause using the key columns",
+            "inputSchema", Map.of(
+                "type", "object",
+                "properties", Map.of(
+                    "schema", Map.of(
+                        "type", "string",
+                        "description", "Schema of the starting table"
+                    ),
+                    "fromTable", Map.of(
+                        "type", "string",
+                        "description", "Starting table"
+                    ),
+                    "toSchema", Map.of(
+                        "type", "string",
+                        "description", "Schema of the target table (default: same as schema)"
+                    ),
+                    "toTable", Map.of(
+                        "type", "string",
+                        "description", "Target table"
+                    ),
+                    "maxHops", Map.of(
+                        "type", "integer",
+                        "description", "Maximum number of joins (default: 6)"
+                    )
+                ),
+                "required", List.of("schema", "fromTable", "toTable")
+            )
+        ));
+        
+        // Profile Table Tool
+        tools.add(Map.of(
+            "name", "profile_table",
+            "description", "Profile table columns with a single aggregate query computed by the database: row count, null count, min/max, distinct count and optional top-k values",
+            "inputSchema", Map.of(
+                "type", "object",
+                "properties", Map.of(
+                    "schema", Map.of(
+                        "type", "string",
+                        "description", "Schema name"
+                    ),
+                    "table", Map.of(
+                        "type", "string",
+                        "description", "Table name"
+                    ),
+                    "columns", Map.of(
+                        "type", "array",
+                        "items", Map.of("type", "string"),
+                        "description", "Columns to profile (default: all columns)"
+                    ),
+                    "samplePercent", Map.of(
+                        "type", "number",
+                        "description", "Percentage of the table to sample server-side (0-100], to bound the cost on large tables"
+                    ),
+                    "topK", Map.of(
+                        "type", "integer",
+                        "description", "Number of most frequent values to return per column (default: none)"
+                    )
+                ),
+                "required", List.of("schema", "table")
+            )
+        ));
+        
+        // Read LOB Tool
+        tools.add(Map.of(
+            "name", "read_lob",
+            "description", "Read a chunk of a large text or binary value (CLOB, BLOB, XML, bytea, varbinary) that was truncated in query results",
+            "inputSchema", Map.of(
+                "type", "object",
+                "properties", Map.of(
+                    "schema", Map.of(
+                        "type", "string",
+                        "description", "Schema name"
+                    ),
+                    "table", Map.of(
+                        "type", "string",
+                        "description", "Table name"
+                    ),
+                    "column", Map.of(
+                        "type", "string",
+                        "description", "Column containing the value"
+                    ),
+                    "key", Map.of(
+                        "type", "object",
+                        "description", "Column/value pairs identifying exactly one row, e.g. the primary key"
+                    ),
+                    "offset", Map.of(
+                        "type", "integer",
+                        "description", "Offset to start reading from (characters for text, bytes for binary, default 0)"
+                    ),
+                    "length", Map.of(
+                        "type", "integer",
+                        "description", "Maximum number of characters or bytes to read"
+                    )
+                ),
+                "required", List.of("schema", "table", "column", "key")
+            )
+        ));
+        
+        // Export Query Tools
+        if (databaseService.getConfig().getExportDirectory() != null) {
+            tools.add(Map.of(
+                "name", "export_query",
+                "description", "Export the full results of a SELECT query to a file on the server as a background job. Returns a job id; use get_export_status to follow progress",
+                "inputSchema", Map.of(
+                    "type", "object",
+                    "properties", Map.of(
+                        "sql", Map.of(
+                            "type", "string",
+                            "description", "SQL SELECT query to export"
+                        ),
+                        "format", Map.of(
+                            "type", "string",
+                            "enum", List.of("ndjson", "csv"),
+                            "description", "Output format (default: ndjson)"
+                        ),
+                        "gzip", Map.of(
+                            "type", "boolean",
+                            "description", "Compress the file with gzip"
+                        )
+                    ),
+                    "required", List.of("sql")
+                )
+            ));
+            
+            tools.add(Map.of(
+                "name", "get_export_status",
+                "description", "Get the progress or result of an export job: status, file path, rows and bytes written",
+                "inputSchema", Map.of(
+                    "type", "object",
+                    "properties", Map.of(
+                        "jobId", Map.of(
+                            "type", "string",
+                            "description", "Job id returned by export_query"
+                        )
+                    ),
+                    "required", List.of("jobId")
+                )
+            ));
+        }
+        
+        // Watch Table Tools
+        tools.add(Map.of(
+            "name", "watch_table",
+            "description", "Watch a table for new rows. The server polls with a keyset predicate on a monotonic column (id or timestamp) and pushes only new rows as notifications/watch_table notifications",
+            "inputSchema", Map.of(
+                "type", "object",
+                "properties", Map.of(
+                    "schema", Map.of(
+                        "type", "string",
+                        "description", "Schema name"
+                    ),
+                    "table", Map.of(
+                        "type", "string",
+                        "description", "Table name"
+                    ),
+                    "column", Map.of(
+                        "type", "string",
+                        "description", "Monotonically increasing numeric or date/time column"
+                    )
+                ),
+                "required", List.of("schema", "table", "column")
+            )
+        ));
+        
+        tools.add(Map.of(
+            "name", "unwatch_table",
+            "description", "Stop a table watch started with watch_table",
+            "inputSchema", Map.of(
+                "type", "object",
+                "properties", Map.of(
+                    "subscriptionId", Map.of(
+                        "type", "string",
+                        "description", "Subscription id returned by watch_table"
+                    )
+                ),
+                "required", List.of("subscriptionId")
+            )
+        ));
+        
+        // Explain Query Tool
+        tools.add(Map.of(
+            "name", "explain_query",
+            "description", "Show the database execution plan and cost estimates for a query without running it",
+            "inputSchema", Map.of(
+                "type", "object",
+                "properties", Map.of(
+                    "sql", Map.of(
+                        "type", "string",
+                        "description", "SQL query to explain"
+                    )
+                ),
+                "required", List.of("sql")
+            )
+        ));
+        
         return Map.of("tools", tools);
     }
 
-    private static Map<String, Object> handleToolCall(Map<String, Object> params) throws Exception {
+    private static Map<String, Object> handleToolCall(Map<String, Object> params, Caller caller) throws Exception {
         String toolName = (String) params.get("name");
         @SuppressWarnings("unchecked")
         Map<String, Object> arguments = (Map<String, Object>) params.getOrDefault("arguments", new HashMap<>());
         
-        Object result = switch (toolName) {
+        SessionScheduler.Task<Object> task = () -> switch (toolName) {
             case "list_schemas" -> databaseService.listSchemas();
             case "list_tables" -> databaseService.listTables((String) arguments.get("schema"));
             case "get_table_structure" -> {
                 TableInfo tableInfo = databaseService.getTableStructure(
                     (String) arguments.get("schema"),
-                    (String) arguments.get("table")
+                    (String) arguments.get("table"),
+                    Boolean.TRUE.equals(arguments.get("includeStatistics"))
                 );
                 yield formatTableStructure(tableInfo);
             }
@@ -315,15 +823,98 @@ public class SqlMcpServer {
                 (Integer) arguments.get("limit")
             );
             case "execute_query" -> databaseService.executeQuery((String) arguments.get("sql"));
+            case "search_schema" -> schemaIndexService.search(
+                (String) arguments.get("query"),
+                (String) arguments.get("kind"),
+                (Integer) arguments.get("limit")
+            );
+            case "get_relationships" -> relationshipService.getRelationships(
+                (String) arguments.get("schema"),
+                (String) arguments.get("table")
+            );
+            case "find_join_path" -> relationshipService.findJoinPath(
+                (String) arguments.get("schema"),
+                (String) arguments.get("fromTable"),
+                (String) arguments.get("toSchema"),
+                (String) arguments.get("toTable"),
+                (Integer) arguments.get("maxHops")
+            );
+            case "profile_table" -> {
+                @SuppressWarnings("unchecked")
+                List<String> columns = (List<String>) arguments.get("columns");
+                Number samplePercent = (Number) arguments.get("samplePercent");
+                TableProfile tableProfile = databaseService.profileTable(
+                    (String) arguments.get("schema"),
+                    (String) arguments.get("table"),
+                    columns,
+                    samplePercent != null ? samplePercent.doubleValue() : null,
+                    (Integer) arguments.get("topK")
+                );
+                yield formatTableProfile(tableProfile);
+            }
+            case "read_lob" -> {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> key = (Map<String, Object>) arguments.get("key");
+                Number offset = (Number) arguments.get("offset");
+                yield databaseService.readLob(
+                    (String) arguments.get("schema"),
+                    (String) arguments.get("table"),
+                    (String) arguments.get("column"),
+                    key,
+                    offset != null ? offset.longValue() : 0L,
+                    (Integer) arguments.get("length")
+                );
+            }
+            case "export_query" -> formatExportJob(exportService.startExport(
+                (String) arguments.get("sql"),
+                (String) arguments.get("format"),
+                Boolean.TRUE.equals(arguments.get("gzip"))
+            ));
+            case "get_export_status" -> formatExportJob(exportService.getJob((String) arguments.get("jobId")));
+            case "watch_table" -> tableWatchService.describe(tableWatchService.watch(
+                (String) arguments.get("schema"),
+                (String) arguments.get("table"),
+                (String) arguments.get("column"),
+                watchOwner(caller)
+            ), watchOwner(caller));
+            case "unwatch_table" -> {
+                tableWatchService.unwatch((String) arguments.get("subscriptionId"), watchOwner(caller));
+                yield Map.of("message", "Watch stopped");
+            }
+            case "explain_query" -> formatQueryPlan(databaseService.explainQuery((String) arguments.get("sql")));
             default -> throw new IllegalArgumentException("Unknown tool: " + toolName);
         };
         
-        return Map.of(
-            "content", List.of(Map.of(
-                "type", "text",
-                "text", objectMapper.writeValueAsString(result)
-            ))
-        );
+        // Database tools go through the session scheduler so concurrency is shared fairly between callers
+        Object result = IN_MEMORY_TOOLS.contains(toolName)
+            ? task.call()
+            : sessionScheduler.execute(caller.apiKey(), caller.address(), caller.clientId(), task);
+        
+        return formatToolResult(result, caller.structuredResults());
+    }
+
+    /**
+     * Wraps a tool result for the response. By default the result is serialized as JSON text.
+     * Clients that negotiated a binary encoding get it as structuredContent instead, so the
+     * encoding carries the values themselves rather than one escaped JSON string.
+     */
+    static Map<String, Object> formatToolResult(Object result, boolean structured) throws IOException {
+        if (!structured) {
+            return Map.of(
+                "content", List.of(Map.of(
+                    "type", "text",
+                    "text", objectMapper.writeValueAsString(result)
+                ))
+            );
+        }
+        Map<String, Object> toolResult = new LinkedHashMap<>();
+        toolResult.put("content", List.of(Map.of(
+            "type", "text",
+            "text", "Result is in structuredContent"
+        )));
+        // structuredContent must be an object, so lists and scalars are wrapped
+        toolResult.put("structuredContent", result instanceof Map ? result : Collections.singletonMap("result", result));
+        return toolResult;
     }
 
     private static Map<String, Object> formatTableStructure(TableInfo tableInfo) {
@@ -331,6 +922,8 @@ public class SqlMcpServer {
         structure.put("schema", tableInfo.getSchema());
         structure.put("table", tableInfo.getTableName());
         
+        TableStatistics statistics = tableInfo.getStatistics();
+        
         List<Map<String, Object>> columns = new ArrayList<>();
         for (ColumnInfo col : tableInfo.getColumns()) {
             Map<String, Object> columnMap = new LinkedHashMap<>();
@@ -339,10 +932,93 @@ public class SqlMcpServer {
             columnMap.put("size", col.getColumnSize());
             columnMap.put("nullable", col.isNullable());
             columnMap.put("primaryKey", col.isPrimaryKey());
+            if (statistics != null && statistics.getColumnStatistics().containsKey(col.getColumnName())) {
+                ColumnStatistics columnStatistics = statistics.getColumnStatistics().get(col.getColumnName());
+                columnMap.put("nullFraction", columnStatistics.getNullFraction());
+                columnMap.put("distinctCount", columnStatistics.getDistinctCount());
+            }
             columns.add(columnMap);
         }
         structure.put("columns", columns);
         
+        if (statistics != null) {
+            structure.put("estimatedRowCount", statistics.getEstimatedRowCount());
+            structure.put("estimatedSizeBytes", statistics.getEstimatedSizeBytes());
+            
+            List<Map<String, Object>> indexes = new ArrayList<>();
+            for (IndexInfo index : statistics.getIndexes()) {
+                Map<String, Object> indexMap = new LinkedHashMap<>();
+                indexMap.put("name", index.getIndexName());
+                indexMap.put("unique", index.isUnique());
+                indexMap.put("columns", index.getColumns());
+                indexMap.put("cardinality", index.getCardinality());
+                indexes.add(indexMap);
+            }
+            structure.put("indexes", indexes);
+        }
+        
         return structure;
     }
+
+    private static Map<String, Object> formatTableProfile(TableProfile tableProfile) {
+        Map<String, Object> profile = new LinkedHashMap<>();
+        profile.put("schema", tableProfile.getSchema());
+        profile.put("table", tableProfile.getTableName());
+        profile.put("rowCount", tableProfile.getRowCount());
+        profile.put("samplePercent", tableProfile.getSamplePercent());
+        
+        List<Map<String, Object>> columns = new ArrayList<>();
+        for (ColumnProfile col : tableProfile.getColumns()) {
+            Map<String, Object> columnMap = new LinkedHashMap<>();
+            columnMap.put("name", col.getColumnName());
+            columnMap.put("type", col.getDataType());
+            columnMap.put("nullCount", col.getNullCount());
+            columnMap.put("min", col.getMinValue());
+            columnMap.put("max", col.getMaxValue());
+            columnMap.put("distinctCount", col.getDistinctCount());
+            columnMap.put("distinctApproximate", col.isDistinctApproximate());
+            if (col.getTopValues() != null) {
+                columnMap.put("topValues", col.getTopValues());
+            }
+            columns.add(columnMap);
+        }
+        profile.put("columns", columns);
+        
+        return profile;
+    }
+
+    private static Map<String, Object> formatExportJob(ExportJob job) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("jobId", job.getJobId());
+        status.put("status", job.getStatus());
+        status.put("filePath", job.getFilePath());
+        status.put("format", job.getFormat());
+        status.put("gzip", job.isGzip());
+        status.put("rowsWritten", job.getRowsWritten());
+        status.put("bytesWritten", job.getBytesWritten());
+        Long finishedAt = job.getFinishedAt();
+        long elapsed = (finishedAt != null ? finishedAt : System.currentTimeMillis()) - job.getStartedAt();
+        status.put("elapsedMillis", elapsed);
+        if (job.getError() != null) {
+            status.put("error", job.getError());
+        }
+        return status;
+    }
+
+    private static Map<String, Object> formatQueryPlan(QueryPlan queryPlan) {
+        Map<String, Object> plan = new LinkedHashMap<>();
+        plan.put("databaseType", queryPlan.getDatabaseType());
+        plan.put("estimatedCost", queryPlan.getEstimatedCost());
+        plan.put("estimatedRows", queryPlan.getEstimatedRows());
+        plan.put("summary", queryPlan.getSummary());
+        plan.put("plan", queryPlan.getPlan());
+        return plan;
+    }
+
+    /**
+     * Who a request comes from: a verified API key or null, the remote address,
+     * the id of the caller's open SSE connection or null, and whether it takes structured results.
+     */
+    private record Caller(String apiKey, String address, String clientId, boolean structuredResults) {
+    }
 }
\ No newline at end of file
@@ -3,16 +3,25 @@ package com.dgdev91.mcpsql.model;
 public class ColumnInfo {
     private String columnName;
     private String dataType;
+    private int sqlType;
     private Integer columnSize;
     private boolean nullable;
     private boolean primaryKey;
+    private String remarks;
 
-    public ColumnInfo(String columnName, String dataType, Integer columnSize, boolean nullable, boolean primaryKey) {
+    public ColumnInfo(String columnName, String dataType, int sqlType, Integer columnSize, boolean nullable, boolean primaryKey) {
+        this(columnName, dataType, sqlType, columnSize, nullable, primaryKey, null);
+    }
+
+    public ColumnInfo(String columnName, String dataType, int sqlType, Integer columnSize, boolean nullable,
+                      boolean primaryKey, String remarks) {
         this.columnName = columnName;
         this.dataType = dataType;
+        this.sqlType = sqlType;
         this.columnSize = columnSize;
         this.nullable = nullable;
         this.primaryKey = primaryKey;
+        this.remarks = remarks;
     }
 
     public String getColumnName() {
@@ -23,6 +32,13 @@ public class ColumnInfo {
         return dataType;
     }
 
+    /**
+     * Returns the JDBC type code from {@link java.sql.Types}.
+     */
+    public int getSqlType() {
+        return sqlType;
+    }
+
     public Integer getColumnSize() {
         return columnSize;
     }
@@ -34,4 +50,8 @@ public class ColumnInfo {
     public boolean isPrimaryKey() {
         return primaryKey;
     }
+
+    public String getRemarks() {
+        return remarks;
+    }
 }
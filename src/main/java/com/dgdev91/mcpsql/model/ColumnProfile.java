@@ -0,0 +1,59 @@
+package com.dgdev91.mcpsql.model;
+
+import java.util.List;
+import java.util.Map;
+
+public class ColumnProfile {
+    private String columnName;
+    private String dataType;
+    private Long nullCount;
+    private Object minValue;
+    private Object maxValue;
+    private Long distinctCount;
+    private boolean distinctApproximate;
+    private List<Map<String, Object>> topValues;
+
+    public ColumnProfile(String columnName, String dataType, Long nullCount, Object minValue, Object maxValue,
+                         Long distinctCount, boolean distinctApproximate, List<Map<String, Object>> topValues) {
+        this.columnName = columnName;
+        this.dataType = dataType;
+        this.nullCount = nullCount;
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+        this.distinctCount = distinctCount;
+        this.distinctApproximate = distinctApproximate;
+        this.topValues = topValues;
+    }
+
+    public String getColumnName() {
+        return columnName;
+    }
+
+    public String getDataType() {
+        return dataType;
+    }
+
+    public Long getNullCount() {
+        return nullCount;
+    }
+
+    public Object getMinValue() {
+        return minValue;
+    }
+
+    public Object getMaxValue() {
+        return maxValue;
+    }
+
+    public Long getDistinctCount() {
+        return distinctCount;
+    }
+
+    public boolean isDistinctApproximate() {
+        return distinctApproximate;
+    }
+
+    public List<Map<String, Object>> getTopValues() {
+        return topValues;
+    }
+}
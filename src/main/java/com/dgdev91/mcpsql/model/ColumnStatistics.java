@@ -0,0 +1,19 @@
+package com.dgdev91.mcpsql.model;
+
+public class ColumnStatistics {
+    private Double nullFraction;
+    private Double distinctCount;
+
+    public ColumnStatistics(Double nullFraction, Double distinctCount) {
+        this.nullFraction = nullFraction;
+        this.distinctCount = distinctCount;
+    }
+
+    public Double getNullFraction() {
+        return nullFraction;
+    }
+
+    public Double getDistinctCount() {
+        return distinctCount;
+    }
+}
@@ -1,11 +1,30 @@
 package com.dgdev91.mcpsql.model;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 public class DatabaseConfig {
     private String jdbcUrl;
     private String username;
     private String password;
     private DatabaseType type;
     private boolean querySelectOnly;
+    private Double maxQueryCost;
+    private Double maxQueryRows;
+    private int lobPreviewLength = 4096;
+    private String exportDirectory;
+    private long schemaIndexRefreshSeconds = 600;
+    private int maxConcurrentQueries = 8;
+    private double rateLimitPerSecond;
+    private int rateLimitBurst = 20;
+    private long queueTimeoutSeconds = 60;
+    private Map<String, Double> sessionWeights = new HashMap<>();
+    private Set<String> apiKeys = new HashSet<>();
+    private int maxSessionsPerAddress = 4;
+    private int httpCompressionMinBytes = 1024;
+    private String httpCompressionEncodings = "zstd,br,gzip";
 
     public DatabaseConfig(String jdbcUrl, String username, String password) {
         this(jdbcUrl, username, password, true);
@@ -26,6 +45,12 @@ public class DatabaseConfig {
             return DatabaseType.ORACLE;
         } else if (jdbcUrl.startsWith("jdbc:sqlserver:")) {
             return DatabaseType.SQLSERVER;
+        } else if (jdbcUrl.startsWith("jdbc:mysql:")) {
+            return DatabaseType.MYSQL;
+        } else if (jdbcUrl.startsWith("jdbc:mariadb:")) {
+            return DatabaseType.MARIADB;
+        } else if (jdbcUrl.startsWith("jdbc:sqlite:")) {
+            return DatabaseType.SQLITE;
         }
         throw new IllegalArgumentException("Unsupported database type in JDBC URL: " + jdbcUrl);
     }
@@ -49,4 +74,119 @@ public class DatabaseConfig {
     public boolean isQuerySelectOnly() {
         return querySelectOnly;
     }
+
+    public Double getMaxQueryCost() {
+        return maxQueryCost;
+    }
+
+    public void setMaxQueryCost(Double maxQueryCost) {
+        this.maxQueryCost = maxQueryCost;
+    }
+
+    public Double getMaxQueryRows() {
+        return maxQueryRows;
+    }
+
+    public void setMaxQueryRows(Double maxQueryRows) {
+        this.maxQueryRows = maxQueryRows;
+    }
+
+    public int getLobPreviewLength() {
+        return lobPreviewLength;
+    }
+
+    public void setLobPreviewLength(int lobPreviewLength) {
+        if (lobPreviewLength < 1) {
+            throw new IllegalArgumentException("LOB preview length must be at least 1: " + lobPreviewLength);
+        }
+        this.lobPreviewLength = lobPreviewLength;
+    }
+
+    public String getExportDirectory() {
+        return exportDirectory;
+    }
+
+    public void setExportDirectory(String exportDirectory) {
+        this.exportDirectory = exportDirectory;
+    }
+
+    public long getSchemaIndexRefreshSeconds() {
+        return schemaIndexRefreshSeconds;
+    }
+
+    public void setSchemaIndexRefreshSeconds(long schemaIndexRefreshSeconds) {
+        this.schemaIndexRefreshSeconds = schemaIndexRefreshSeconds;
+    }
+
+    public int getMaxConcurrentQueries() {
+        return maxConcurrentQueries;
+    }
+
+    public void setMaxConcurrentQueries(int maxConcurrentQueries) {
+        this.maxConcurrentQueries = maxConcurrentQueries;
+    }
+
+    public double getRateLimitPerSecond() {
+        return rateLimitPerSecond;
+    }
+
+    public void setRateLimitPerSecond(double rateLimitPerSecond) {
+        this.rateLimitPerSecond = rateLimitPerSecond;
+    }
+
+    public int getRateLimitBurst() {
+        return rateLimitBurst;
+    }
+
+    public void setRateLimitBurst(int rateLimitBurst) {
+        this.rateLimitBurst = rateLimitBurst;
+    }
+
+    public long getQueueTimeoutSeconds() {
+        return queueTimeoutSeconds;
+    }
+
+    public void setQueueTimeoutSeconds(long queueTimeoutSeconds) {
+        this.queueTimeoutSeconds = queueTimeoutSeconds;
+    }
+
+    public Map<String, Double> getSessionWeights() {
+        return sessionWeights;
+    }
+
+    public void setSessionWeights(Map<String, Double> sessionWeights) {
+        this.sessionWeights = sessionWeights;
+    }
+
+    public Set<String> getApiKeys() {
+        return apiKeys;
+    }
+
+    public void setApiKeys(Set<String> apiKeys) {
+        this.apiKeys = apiKeys;
+    }
+
+    public int getMaxSessionsPerAddress() {
+        return maxSessionsPerAddress;
+    }
+
+    public void setMaxSessionsPerAddress(int maxSessionsPerAddress) {
+        this.maxSessionsPerAddress = maxSessionsPerAddress;
+    }
+
+    public int getHttpCompressionMinBytes() {
+        return httpCompressionMinBytes;
+    }
+
+    public void setHttpCompressionMinBytes(int httpCompressionMinBytes) {
+        this.httpCompressionMinBytes = httpCompressionMinBytes;
+    }
+
+    public String getHttpCompressionEncodings() {
+        return httpCompressionEncodings;
+    }
+
+    public void setHttpCompressionEncodings(String httpCompressionEncodings) {
+        this.httpCompressionEncodings = httpCompressionEncodings;
+    }
 }
@@ -0,0 +1,87 @@
+package com.dgdev91.mcpsql.model;
+
+public class ExportJob {
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String jobId;
+    private final String filePath;
+    private final String format;
+    private final boolean gzip;
+    private final long startedAt;
+    private volatile Status status = Status.RUNNING;
+    private volatile long rowsWritten;
+    private volatile long bytesWritten;
+    private volatile Long finishedAt;
+    private volatile String error;
+
+    public ExportJob(String jobId, String filePath, String format, boolean gzip) {
+        this.jobId = jobId;
+        this.filePath = filePath;
+        this.format = format;
+        this.gzip = gzip;
+        this.startedAt = System.currentTimeMillis();
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public boolean isGzip() {
+        return gzip;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    public void setRowsWritten(long rowsWritten) {
+        this.rowsWritten = rowsWritten;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public void setBytesWritten(long bytesWritten) {
+        this.bytesWritten = bytesWritten;
+    }
+
+    public Long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void complete() {
+        this.finishedAt = System.currentTimeMillis();
+        this.status = Status.COMPLETED;
+    }
+
+    public void fail(String error) {
+        this.error = error;
+        this.finishedAt = System.currentTimeMillis();
+        this.status = Status.FAILED;
+    }
+}
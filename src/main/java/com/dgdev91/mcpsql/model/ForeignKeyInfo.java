@@ -0,0 +1,52 @@
+package com.dgdev91.mcpsql.model;
+
+import java.util.List;
+
+public class ForeignKeyInfo {
+    private String constraintName;
+    private String schema;
+    private String tableName;
+    private List<String> columns;
+    private String referencedSchema;
+    private String referencedTableName;
+    private List<String> referencedColumns;
+
+    public ForeignKeyInfo(String constraintName, String schema, String tableName, List<String> columns,
+                          String referencedSchema, String referencedTableName, List<String> referencedColumns) {
+        this.constraintName = constraintName;
+        this.schema = schema;
+        this.tableName = tableName;
+        this.columns = columns;
+        this.referencedSchema = referencedSchema;
+        this.referencedTableName = referencedTableName;
+        this.referencedColumns = referencedColumns;
+    }
+
+    public String getConstraintName() {
+        return constraintName;
+    }
+
+    public String getSchema() {
+        return schema;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public String getReferencedSchema() {
+        return referencedSchema;
+    }
+
+    public String getReferencedTableName() {
+        return referencedTableName;
+    }
+
+    public List<String> getReferencedColumns() {
+        return referencedColumns;
+    }
+}
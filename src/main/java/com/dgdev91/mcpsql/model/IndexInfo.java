@@ -0,0 +1,33 @@
+package com.dgdev91.mcpsql.model;
+
+import java.util.List;
+
+public class IndexInfo {
+    private String indexName;
+    private boolean unique;
+    private List<String> columns;
+    private Long cardinality;
+
+    public IndexInfo(String indexName, boolean unique, List<String> columns, Long cardinality) {
+        this.indexName = indexName;
+        this.unique = unique;
+        this.columns = columns;
+        this.cardinality = cardinality;
+    }
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    public boolean isUnique() {
+        return unique;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public Long getCardinality() {
+        return cardinality;
+    }
+}
@@ -0,0 +1,37 @@
+package com.dgdev91.mcpsql.model;
+
+public class QueryPlan {
+    private DatabaseType databaseType;
+    private Object plan;
+    private Double estimatedCost;
+    private Double estimatedRows;
+    private String summary;
+
+    public QueryPlan(DatabaseType databaseType, Object plan, Double estimatedCost, Double estimatedRows, String summary) {
+        this.databaseType = databaseType;
+        this.plan = plan;
+        this.estimatedCost = estimatedCost;
+        this.estimatedRows = estimatedRows;
+        this.summary = summary;
+    }
+
+    public DatabaseType getDatabaseType() {
+        return databaseType;
+    }
+
+    public Object getPlan() {
+        return plan;
+    }
+
+    public Double getEstimatedCost() {
+        return estimatedCost;
+    }
+
+    public Double getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+}
@@ -6,11 +6,18 @@ public class TableInfo {
     private String schema;
     private String tableName;
     private List<ColumnInfo> columns;
+    private TableStatistics statistics;
+    private String remarks;
 
     public TableInfo(String schema, String tableName, List<ColumnInfo> columns) {
+        this(schema, tableName, columns, null);
+    }
+
+    public TableInfo(String schema, String tableName, List<ColumnInfo> columns, TableStatistics statistics) {
         this.schema = schema;
         this.tableName = tableName;
         this.columns = columns;
+        this.statistics = statistics;
     }
 
     public String getSchema() {
@@ -24,4 +31,16 @@ public class TableInfo {
     public List<ColumnInfo> getColumns() {
         return columns;
     }
+
+    public TableStatistics getStatistics() {
+        return statistics;
+    }
+
+    public String getRemarks() {
+        return remarks;
+    }
+
+    public void setRemarks(String remarks) {
+        this.remarks = remarks;
+    }
 }
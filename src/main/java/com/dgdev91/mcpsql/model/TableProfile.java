@@ -0,0 +1,39 @@
+package com.dgdev91.mcpsql.model;
+
+import java.util.List;
+
+public class TableProfile {
+    private String schema;
+    private String tableName;
+    private long rowCount;
+    private Double samplePercent;
+    private List<ColumnProfile> columns;
+
+    public TableProfile(String schema, String tableName, long rowCount, Double samplePercent, List<ColumnProfile> columns) {
+        this.schema = schema;
+        this.tableName = tableName;
+        this.rowCount = rowCount;
+        this.samplePercent = samplePercent;
+        this.columns = columns;
+    }
+
+    public String getSchema() {
+        return schema;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public Double getSamplePercent() {
+        return samplePercent;
+    }
+
+    public List<ColumnProfile> getColumns() {
+        return columns;
+    }
+}
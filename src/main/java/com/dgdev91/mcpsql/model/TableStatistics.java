@@ -0,0 +1,35 @@
+package com.dgdev91.mcpsql.model;
+
+import java.util.List;
+import java.util.Map;
+
+public class TableStatistics {
+    private Long estimatedRowCount;
+    private Long estimatedSizeBytes;
+    private List<IndexInfo> indexes;
+    private Map<String, ColumnStatistics> columnStatistics;
+
+    public TableStatistics(Long estimatedRowCount, Long estimatedSizeBytes, List<IndexInfo> indexes,
+                           Map<String, ColumnStatistics> columnStatistics) {
+        this.estimatedRowCount = estimatedRowCount;
+        this.estimatedSizeBytes = estimatedSizeBytes;
+        this.indexes = indexes;
+        this.columnStatistics = columnStatistics;
+    }
+
+    public Long getEstimatedRowCount() {
+        return estimatedRowCount;
+    }
+
+    public Long getEstimatedSizeBytes() {
+        return estimatedSizeBytes;
+    }
+
+    public List<IndexInfo> getIndexes() {
+        return indexes;
+    }
+
+    public Map<String, ColumnStatistics> getColumnStatistics() {
+        return columnStatistics;
+    }
+}
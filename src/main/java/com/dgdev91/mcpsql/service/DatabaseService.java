@@ -1,18 +1,46 @@
 package com.dgdev91.mcpsql.service;
 
 import com.dgdev91.mcpsql.model.ColumnInfo;
+import com.dgdev91.mcpsql.model.ColumnProfile;
+import com.dgdev91.mcpsql.model.ColumnStatistics;
 import com.dgdev91.mcpsql.model.DatabaseConfig;
+import com.dgdev91.mcpsql.model.ForeignKeyInfo;
+import com.dgdev91.mcpsql.model.IndexInfo;
+import com.dgdev91.mcpsql.model.QueryPlan;
 import com.dgdev91.mcpsql.model.TableInfo;
+import com.dgdev91.mcpsql.model.TableProfile;
+import com.dgdev91.mcpsql.model.TableStatistics;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 import java.sql.*;
 import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class DatabaseService {
     private static final Logger logger = LogManager.getLogger(DatabaseService.class);
     private static final String SELECT_FROM = "SELECT * FROM ";
     private static final int MAX_QUERY_LIMIT = 10000;
+    private static final int PLAN_SUMMARY_LINES = 12;
+    private static final int MAX_PROFILE_COLUMNS = 100;
+    private static final int MAX_PROFILE_TOP_K = 100;
+    private static final int MAX_LOB_CHUNK_LENGTH = 1024 * 1024;
+    private static final int READ_BUFFER_LENGTH = 8192;
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    // Fallback for Oracle releases without ALL_USERS.ORACLE_MAINTAINED (before 12c)
+    private static final Set<String> ORACLE_SYSTEM_SCHEMAS = Set.of(
+        "SYS", "SYSTEM", "OUTLN", "DBSNMP", "APPQOSSYS", "AUDSYS", "CTXSYS", "DVSYS", "DBSFWUSER", "GSMADMIN_INTERNAL",
+        "LBACSYS", "MDSYS", "OJVMSYS", "OLAPSYS", "ORDDATA", "ORDPLUGINS", "ORDSYS", "SI_INFORMTN_SCHEMA", "WMSYS",
+        "XDB", "XS$NULL", "ANONYMOUS", "DIP", "EXFSYS", "MGMT_VIEW", "ORACLE_OCM", "SPATIAL_CSW_ADMIN_USR",
+        "SPATIAL_WFS_ADMIN_USR", "SYSBACKUP", "SYSDG", "SYSKM", "SYSRAC", "REMOTE_SCHEDULER_AGENT", "GGSYS", "MDDATA");
     private final DatabaseConfig config;
 
     public DatabaseService(DatabaseConfig config) {
@@ -20,6 +48,12 @@ public class DatabaseService {
 
         // Load only the necessary JDBC driver based on the JDBC URL
         loadDriverForJdbcUrl(config.getJdbcUrl());
+        
+        if (config.getType() == com.dgdev91.mcpsql.model.DatabaseType.SQLITE
+                && (config.getMaxQueryCost() != null || config.getMaxQueryRows() != null)) {
+            logger.warn("JMCP_QUERY_MAX_COST/JMCP_QUERY_MAX_ROWS are set but SQLite query plans carry no cost "
+                + "or row estimates; queries will not be checked against these limits");
+        }
     }
 
     public DatabaseConfig getConfig() {
@@ -106,7 +140,7 @@ public class DatabaseService {
      * Quotes an identifier according to the database type to prevent SQL injection.
      * This is safer than concatenating raw strings into SQL queries.
      */
-    private String quoteIdentifier(String identifier) {
+    String quoteIdentifier(String identifier) {
         switch (config.getType()) {
             case POSTGRESQL:
                 return "\"" + identifier.replace("\"", "\"\"") + "\"";
@@ -201,8 +235,293 @@ public class DatabaseService {
         return tables;
     }
 
+    /**
+     * Loads all tables of a schema with their columns and remarks using one bulk
+     * getTables and one bulk getColumns call. Primary keys are not loaded.
+     */
+    public List<TableInfo> getSchemaStructure(String schema) throws SQLException {
+        Map<String, TableInfo> tables = new LinkedHashMap<>();
+        
+        try (Connection conn = getConnection()) {
+            DatabaseMetaData metaData = conn.getMetaData();
+            
+            try (ResultSet rs = metaData.getTables(null, schema, "%", new String[]{"TABLE"})) {
+                while (rs.next()) {
+                    String tableName = rs.getString("TABLE_NAME");
+                    TableInfo tableInfo = new TableInfo(schema, tableName, new ArrayList<>());
+                    tableInfo.setRemarks(rs.getString("REMARKS"));
+                    tables.put(tableName, tableInfo);
+                }
+            }
+            
+            try {
+                loadSchemaColumns(metaData, schema, "%", tables);
+            } catch (SQLException e) {
+                // Some drivers (e.g. SQLite) build one statement over all tables and hit size limits
+                logger.debug("Bulk column lookup failed for schema {}, loading per table: {}", schema, e.getMessage());
+                for (TableInfo tableInfo : tables.values()) {
+                    tableInfo.getColumns().clear();
+                    loadSchemaColumns(metaData, schema, tableInfo.getTableName(), tables);
+                }
+            }
+        }
+        
+        return new ArrayList<>(tables.values());
+    }
+    
+    private void loadSchemaColumns(DatabaseMetaData metaData, String schema, String tablePattern,
+                                   Map<String, TableInfo> tables) throws SQLException {
+        try (ResultSet rs = metaData.getColumns(null, schema, tablePattern, "%")) {
+            while (rs.next()) {
+                TableInfo tableInfo = tables.get(rs.getString("TABLE_NAME"));
+                if (tableInfo == null) {
+                    continue;
+                }
+                tableInfo.getColumns().add(new ColumnInfo(
+                    rs.getString("COLUMN_NAME"),
+                    rs.getString("TYPE_NAME"),
+                    rs.getInt("DATA_TYPE"),
+                    rs.getInt("COLUMN_SIZE"),
+                    rs.getInt("NULLABLE") == DatabaseMetaData.columnNullable,
+                    false,
+                    rs.getString("REMARKS")
+                ));
+            }
+        }
+    }
+
+    /**
+     * Returns the schemas that hold user data, leaving out system schemas that listSchemas
+     * still reports (on Oracle, every Oracle-maintained account in ALL_USERS).
+     */
+    public List<String> listUserSchemas() throws SQLException {
+        if (config.getType() != com.dgdev91.mcpsql.model.DatabaseType.ORACLE) {
+            return listSchemas();
+        }
+        
+        List<String> schemas = new ArrayList<>();
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT username FROM all_users WHERE oracle_maintained = 'N' ORDER BY username")) {
+            while (rs.next()) {
+                schemas.add(rs.getString("username"));
+            }
+        } catch (SQLException e) {
+            logger.debug("ALL_USERS.ORACLE_MAINTAINED unavailable, using the known system schema list: {}", e.getMessage());
+            schemas.clear();
+            for (String schema : listSchemas()) {
+                if (!ORACLE_SYSTEM_SCHEMAS.contains(schema) && !schema.startsWith("APEX_") && !schema.startsWith("FLOWS_")) {
+                    schemas.add(schema);
+                }
+            }
+        }
+        return schemas;
+    }
+
+    /**
+     * Returns a version token per table of a schema that changes when the table's definition changes,
+     * read from the catalog in one query, or null if the database has no suitable catalog data.
+     * Tokens are only compared for equality:
+     * PostgreSQL uses the transaction ids of the table's pg_class, pg_attribute and pg_description rows,
+     * Oracle ALL_OBJECTS.LAST_DDL_TIME, SQL Server sys.tables.modify_date, MySQL/MariaDB the table's
+     * CREATE_TIME (reset by ALTER TABLE) and comment, and SQLite the table's DDL in sqlite_master.
+     * UPDATE_TIME is not used on MySQL since it changes with every write.
+     */
+    public Map<String, String> getTableVersions(String schema) throws SQLException {
+        String query;
+        switch (config.getType()) {
+            case POSTGRESQL:
+                query = "SELECT c.relname, c.xmin::text || ':' "
+                    + "|| COALESCE((SELECT max(a.xmin::text::bigint) FROM pg_attribute a WHERE a.attrelid = c.oid AND a.attnum > 0), 0) || ':' "
+                    + "|| COALESCE((SELECT max(d.xmin::text::bigint) FROM pg_description d WHERE d.objoid = c.oid), 0) "
+                    + "FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace "
+                    + "WHERE n.nspname = ? AND c.relkind IN ('r', 'p')";
+                break;
+            case ORACLE:
+                query = "SELECT object_name, TO_CHAR(last_ddl_time, 'YYYY-MM-DD HH24:MI:SS') FROM all_objects "
+                    + "WHERE owner = ? AND object_type = 'TABLE'";
+                break;
+            case SQLSERVER:
+                query = "SELECT t.name, CONVERT(varchar(33), t.modify_date, 126) FROM sys.tables t "
+                    + "WHERE SCHEMA_NAME(t.schema_id) = ?";
+                break;
+            case MYSQL:
+            case MARIADB:
+                query = "SELECT table_name, CONCAT(COALESCE(CAST(create_time AS CHAR), ''), ':', table_comment) "
+                    + "FROM information_schema.tables WHERE table_schema = ? AND table_type = 'BASE TABLE'";
+                break;
+            case SQLITE:
+                validateIdentifier(schema, "Schema");
+                // The schema is part of the table name here rather than a parameter
+                query = "SELECT name, sql FROM " + quoteIdentifier(schema) + ".sqlite_master "
+                    + "WHERE type = 'table' AND name NOT LIKE 'sqlite_%'";
+                break;
+            default:
+                return null;
+        }
+        
+        Map<String, String> versions = new HashMap<>();
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
+            if (config.getType() != com.dgdev91.mcpsql.model.DatabaseType.SQLITE) {
+                pstmt.setString(1, schema);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    versions.put(rs.getString(1), String.valueOf(rs.getString(2)));
+                }
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * Loads the given tables of a schema with their columns and remarks, like getSchemaStructure.
+     * Tables that no longer exist are left out.
+     */
+    public List<TableInfo> getSchemaStructure(String schema, Collection<String> tableNames) throws SQLException {
+        Map<String, TableInfo> tables = new LinkedHashMap<>();
+        
+        try (Connection conn = getConnection()) {
+            DatabaseMetaData metaData = conn.getMetaData();
+            String escape = metaData.getSearchStringEscape();
+            
+            for (String tableName : tableNames) {
+                // Table names are metadata patterns: escape _ and % so only this table matches
+                String pattern = escape == null || escape.isEmpty() ? tableName
+                    : tableName.replace(escape, escape + escape).replace("_", escape + "_").replace("%", escape + "%");
+                try (ResultSet rs = metaData.getTables(null, schema, pattern, new String[]{"TABLE"})) {
+                    while (rs.next()) {
+                        if (tableName.equals(rs.getString("TABLE_NAME"))) {
+                            TableInfo tableInfo = new TableInfo(schema, tableName, new ArrayList<>());
+                            tableInfo.setRemarks(rs.getString("REMARKS"));
+                            tables.put(tableName, tableInfo);
+                        }
+                    }
+                }
+                if (tables.containsKey(tableName)) {
+                    loadSchemaColumns(metaData, schema, pattern, tables);
+                }
+            }
+        }
+        
+        return new ArrayList<>(tables.values());
+    }
+
+    /**
+     * Loads all foreign keys declared by tables of a schema. Uses one catalog query where the
+     * database has a suitable view, and falls back to getImportedKeys per table otherwise (SQLite).
+     * Composite keys are returned as one entry with columns in key order.
+     */
+    public List<ForeignKeyInfo> listForeignKeys(String schema) throws SQLException {
+        String query;
+        switch (config.getType()) {
+            case POSTGRESQL:
+                query = "SELECT con.conname, ns.nspname, cl.relname, att.attname, fns.nspname, fcl.relname, fatt.attname "
+                    + "FROM pg_constraint con "
+                    + "JOIN pg_class cl ON cl.oid = con.conrelid "
+                    + "JOIN pg_namespace ns ON ns.oid = cl.relnamespace "
+                    + "JOIN pg_class fcl ON fcl.oid = con.confrelid "
+                    + "JOIN pg_namespace fns ON fns.oid = fcl.relnamespace "
+                    + "CROSS JOIN LATERAL unnest(con.conkey, con.confkey) WITH ORDINALITY AS k(attnum, fattnum, ord) "
+                    + "JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attnum = k.attnum "
+                    + "JOIN pg_attribute fatt ON fatt.attrelid = con.confrelid AND fatt.attnum = k.fattnum "
+                    + "WHERE con.contype = 'f' AND ns.nspname = ? "
+                    + "ORDER BY cl.relname, con.conname, k.ord";
+                break;
+            case ORACLE:
+                query = "SELECT c.constraint_name, c.owner, ac.table_name, ac.column_name, rc.owner, rcc.table_name, rcc.column_name "
+                    + "FROM all_constraints c "
+                    + "JOIN all_cons_columns ac ON ac.owner = c.owner AND ac.constraint_name = c.constraint_name "
+                    + "JOIN all_constraints rc ON rc.owner = c.r_owner AND rc.constraint_name = c.r_constraint_name "
+                    + "JOIN all_cons_columns rcc ON rcc.owner = rc.owner AND rcc.constraint_name = rc.constraint_name "
+                    + "AND rcc.position = ac.position "
+                    + "WHERE c.constraint_type = 'R' AND c.owner = ? "
+                    + "ORDER BY ac.table_name, c.constraint_name, ac.position";
+                break;
+            case SQLSERVER:
+                query = "SELECT fk.name, SCHEMA_NAME(pt.schema_id), pt.name, pc.name, SCHEMA_NAME(rt.schema_id), rt.name, rc.name "
+                    + "FROM sys.foreign_keys fk "
+                    + "JOIN sys.foreign_key_columns fkc ON fkc.constraint_object_id = fk.object_id "
+                    + "JOIN sys.tables pt ON pt.object_id = fkc.parent_object_id "
+                    + "JOIN sys.columns pc ON pc.object_id = fkc.parent_object_id AND pc.column_id = fkc.parent_column_id "
+                    + "JOIN sys.tables rt ON rt.object_id = fkc.referenced_object_id "
+                    + "JOIN sys.columns rc ON rc.object_id = fkc.referenced_object_id AND rc.column_id = fkc.referenced_column_id "
+                    + "WHERE SCHEMA_NAME(pt.schema_id) = ? "
+                    + "ORDER BY pt.name, fk.name, fkc.constraint_column_id";
+                break;
+            case MYSQL:
+            case MARIADB:
+                query = "SELECT constraint_name, table_schema, table_name, column_name, "
+                    + "referenced_table_schema, referenced_table_name, referenced_column_name "
+                    + "FROM information_schema.key_column_usage "
+                    + "WHERE referenced_table_name IS NOT NULL AND table_schema = ? "
+                    + "ORDER BY table_name, constraint_name, ordinal_position";
+                break;
+            default:
+                return listForeignKeysPerTable(schema);
+        }
+        
+        Map<String, ForeignKeyInfo> foreignKeys = new LinkedHashMap<>();
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setString(1, schema);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    addForeignKeyColumn(foreignKeys, rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getString(5), rs.getString(6), rs.getString(7));
+                }
+            }
+        }
+        return new ArrayList<>(foreignKeys.values());
+    }
+    
+    private List<ForeignKeyInfo> listForeignKeysPerTable(String schema) throws SQLException {
+        Map<String, ForeignKeyInfo> foreignKeys = new LinkedHashMap<>();
+        List<String> tables = listTables(schema);
+        
+        try (Connection conn = getConnection()) {
+            DatabaseMetaData metaData = conn.getMetaData();
+            for (String tableName : tables) {
+                try (ResultSet rs = metaData.getImportedKeys(null, schema, tableName)) {
+                    while (rs.next()) {
+                        String constraintName = rs.getString("FK_NAME");
+                        // Unnamed constraints are grouped by the referenced table
+                        if (constraintName == null || constraintName.isEmpty()) {
+                            constraintName = tableName + "_" + rs.getString("PKTABLE_NAME") + "_fk";
+                        }
+                        addForeignKeyColumn(foreignKeys, constraintName, schema, tableName, rs.getString("FKCOLUMN_NAME"),
+                            rs.getString("PKTABLE_SCHEM") != null ? rs.getString("PKTABLE_SCHEM") : schema,
+                            rs.getString("PKTABLE_NAME"), rs.getString("PKCOLUMN_NAME"));
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(foreignKeys.values());
+    }
+    
+    private void addForeignKeyColumn(Map<String, ForeignKeyInfo> foreignKeys, String constraintName,
+                                     String schema, String tableName, String column,
+                                     String referencedSchema, String referencedTable, String referencedColumn) {
+        ForeignKeyInfo foreignKey = foreignKeys.computeIfAbsent(tableName + "." + constraintName,
+            k -> new ForeignKeyInfo(constraintName, schema, tableName, new ArrayList<>(),
+                referencedSchema, referencedTable, new ArrayList<>()));
+        foreignKey.getColumns().add(column);
+        foreignKey.getReferencedColumns().add(referencedColumn);
+    }
+
     public TableInfo getTableStructure(String schema, String tableName) throws SQLException {
+        return getTableStructure(schema, tableName, false);
+    }
+
+    /**
+     * Returns the columns of a table and, if requested, catalog-based statistics
+     * (estimated row count and size, per-column null fraction and distinct count, indexes).
+     * Statistics are read from the optimizer catalog and never scan the table itself.
+     */
+    public TableInfo getTableStructure(String schema, String tableName, boolean includeStatistics) throws SQLException {
         List<ColumnInfo> columns = new ArrayList<>();
+        TableStatistics statistics = null;
         Set<String> primaryKeys = new HashSet<>();
         
         try (Connection conn = getConnection()) {
@@ -220,16 +539,172 @@ public class DatabaseService {
                 while (rs.next()) {
                     String columnName = rs.getString("COLUMN_NAME");
                     String dataType = rs.getString("TYPE_NAME");
+                    int sqlType = rs.getInt("DATA_TYPE");
                     Integer columnSize = rs.getInt("COLUMN_SIZE");
                     boolean nullable = rs.getInt("NULLABLE") == DatabaseMetaData.columnNullable;
                     boolean isPrimaryKey = primaryKeys.contains(columnName);
                     
-                    columns.add(new ColumnInfo(columnName, dataType, columnSize, nullable, isPrimaryKey));
+                    columns.add(new ColumnInfo(columnName, dataType, sqlType, columnSize, nullable, isPrimaryKey));
+                }
+            }
+            
+            if (includeStatistics) {
+                statistics = loadTableStatistics(conn, schema, tableName);
+            }
+        }
+        
+        return new TableInfo(schema, tableName, columns, statistics);
+    }
+
+    private TableStatistics loadTableStatistics(Connection conn, String schema, String tableName) {
+        Long[] sizeEstimates = new Long[2];
+        Map<String, ColumnStatistics> columnStatistics = new LinkedHashMap<>();
+        List<IndexInfo> indexes = new ArrayList<>();
+        
+        // Statistics are best effort: missing privileges on catalog views must not fail the whole call
+        try {
+            sizeEstimates = loadSizeEstimates(conn, schema, tableName);
+        } catch (SQLException e) {
+            logger.warn("Unable to read size estimates for {}.{}: {}", schema, tableName, e.getMessage());
+        }
+        try {
+            columnStatistics = loadColumnStatistics(conn, schema, tableName, sizeEstimates[0]);
+        } catch (SQLException e) {
+            logger.warn("Unable to read column statistics for {}.{}: {}", schema, tableName, e.getMessage());
+        }
+        try {
+            indexes = loadIndexes(conn, schema, tableName);
+        } catch (SQLException e) {
+            logger.warn("Unable to read indexes for {}.{}: {}", schema, tableName, e.getMessage());
+        }
+        
+        return new TableStatistics(sizeEstimates[0], sizeEstimates[1], indexes, columnStatistics);
+    }
+    
+    /**
+     * Returns {estimatedRowCount, estimatedSizeBytes} from the catalog; either may be null.
+     */
+    private Long[] loadSizeEstimates(Connection conn, String schema, String tableName) throws SQLException {
+        String query;
+        switch (config.getType()) {
+            case POSTGRESQL:
+                // reltuples is -1 for tables that have never been vacuumed or analyzed
+                query = "SELECT CASE WHEN c.reltuples < 0 THEN NULL ELSE c.reltuples::bigint END, "
+                    + "pg_total_relation_size(c.oid) "
+                    + "FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace "
+                    + "WHERE n.nspname = ? AND c.relname = ?";
+                break;
+            case ORACLE:
+                query = "SELECT num_rows, num_rows * avg_row_len FROM all_tables WHERE owner = ? AND table_name = ?";
+                break;
+            case SQLSERVER:
+                query = "SELECT SUM(CASE WHEN ps.index_id IN (0, 1) THEN ps.row_count ELSE 0 END), "
+                    + "SUM(ps.used_page_count) * 8192 "
+                    + "FROM sys.dm_db_partition_stats ps "
+                    + "JOIN sys.objects o ON o.object_id = ps.object_id "
+                    + "JOIN sys.schemas s ON s.schema_id = o.schema_id "
+                    + "WHERE s.name = ? AND o.name = ?";
+                break;
+            case MYSQL:
+            case MARIADB:
+                query = "SELECT table_rows, data_length + index_length FROM information_schema.tables "
+                    + "WHERE table_schema = ? AND table_name = ?";
+                break;
+            default:
+                // SQLite keeps no size statistics unless ANALYZE has populated sqlite_stat1
+                return new Long[2];
+        }
+        
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setString(1, schema);
+            pstmt.setString(2, tableName);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return new Long[]{getNullableLong(rs, 1), getNullableLong(rs, 2)};
+                }
+            }
+        }
+        return new Long[2];
+    }
+    
+    private Map<String, ColumnStatistics> loadColumnStatistics(Connection conn, String schema, String tableName,
+                                                               Long rowCount) throws SQLException {
+        Map<String, ColumnStatistics> statistics = new LinkedHashMap<>();
+        
+        switch (config.getType()) {
+            case POSTGRESQL:
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "SELECT attname, null_frac, n_distinct FROM pg_stats WHERE schemaname = ? AND tablename = ?")) {
+                    pstmt.setString(1, schema);
+                    pstmt.setString(2, tableName);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            Double distinct = getNullableDouble(rs, 3);
+                            // Negative n_distinct is a fraction of the row count
+                            if (distinct != null && distinct < 0) {
+                                distinct = rowCount != null ? (double) Math.round(-distinct * rowCount) : null;
+                            }
+                            statistics.put(rs.getString(1), new ColumnStatistics(getNullableDouble(rs, 2), distinct));
+                        }
+                    }
+                }
+                break;
+                
+            case ORACLE:
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "SELECT column_name, num_nulls, num_distinct FROM all_tab_col_statistics "
+                        + "WHERE owner = ? AND table_name = ?")) {
+                    pstmt.setString(1, schema);
+                    pstmt.setString(2, tableName);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            Double nulls = getNullableDouble(rs, 2);
+                            Double nullFraction = nulls != null && rowCount != null && rowCount > 0
+                                ? nulls / rowCount : null;
+                            statistics.put(rs.getString(1), new ColumnStatistics(nullFraction, getNullableDouble(rs, 3)));
+                        }
+                    }
+                }
+                break;
+                
+            default:
+                // SQL Server, MySQL, MariaDB and SQLite do not expose per-column statistics
+                // through a catalog view; index cardinality is reported via getIndexInfo instead
+                break;
+        }
+        
+        return statistics;
+    }
+    
+    private List<IndexInfo> loadIndexes(Connection conn, String schema, String tableName) throws SQLException {
+        Map<String, List<String>> indexColumns = new LinkedHashMap<>();
+        Map<String, Boolean> indexUnique = new HashMap<>();
+        Map<String, Long> indexCardinality = new HashMap<>();
+        
+        DatabaseMetaData metaData = conn.getMetaData();
+        try (ResultSet rs = metaData.getIndexInfo(null, schema, tableName, false, true)) {
+            while (rs.next()) {
+                String indexName = rs.getString("INDEX_NAME");
+                // Rows of type tableIndexStatistic describe the table, not an index
+                if (indexName == null || rs.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic) {
+                    continue;
+                }
+                indexColumns.computeIfAbsent(indexName, k -> new ArrayList<>()).add(rs.getString("COLUMN_NAME"));
+                indexUnique.put(indexName, !rs.getBoolean("NON_UNIQUE"));
+                long cardinality = rs.getLong("CARDINALITY");
+                if (!rs.wasNull()) {
+                    indexCardinality.put(indexName, cardinality);
                 }
             }
         }
         
-        return new TableInfo(schema, tableName, columns);
+        List<IndexInfo> indexes = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : indexColumns.entrySet()) {
+            String indexName = entry.getKey();
+            indexes.add(new IndexInfo(indexName, indexUnique.get(indexName), entry.getValue(),
+                indexCardinality.get(indexName)));
+        }
+        return indexes;
     }
 
     public List<Map<String, Object>> queryTable(String schema, String tableName, Integer limit) throws SQLException {
@@ -333,12 +808,13 @@ public class DatabaseService {
         List<Map<String, Object>> results = new ArrayList<>();
         ResultSetMetaData metaData = rs.getMetaData();
         int columnCount = metaData.getColumnCount();
+        int[] columnTypes = readColumnTypes(metaData);
         
         while (rs.next()) {
             Map<String, Object> row = new LinkedHashMap<>();
             for (int i = 1; i <= columnCount; i++) {
                 String columnName = metaData.getColumnName(i);
-                Object value = rs.getObject(i);
+                Object value = readColumnValue(rs, i, columnTypes[i]);
                 row.put(columnName, value);
             }
             results.add(row);
@@ -346,66 +822,986 @@ public class DatabaseService {
         
         return results;
     }
-
+    
     /**
-     * Executes a raw SQL query.
-     * WARNING: This method is potentially unsafe as it accepts arbitrary SQL.
-     * It should only be used with trusted input. The caller is responsible
-     * for ensuring the SQL is safe and does not contain user-controlled data
-     * without proper sanitization.
+     * Returns the JDBC type of each column (1-based) as readColumnValue should treat it.
+     * Unbounded or wider-than-preview strings (e.g. PostgreSQL text) are read like long text.
      */
-    public List<Map<String, Object>> executeQuery(String sql) throws SQLException {
-        List<Map<String, Object>> results = new ArrayList<>();
+    int[] readColumnTypes(ResultSetMetaData metaData) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        int[] columnTypes = new int[columnCount + 1];
+        for (int i = 1; i <= columnCount; i++) {
+            columnTypes[i] = metaData.getColumnType(i);
+            int precision = metaData.getPrecision(i);
+            if (precision <= 0 || precision > config.getLobPreviewLength()) {
+                if (columnTypes[i] == Types.VARCHAR) {
+                    columnTypes[i] = Types.LONGVARCHAR;
+                } else if (columnTypes[i] == Types.NVARCHAR) {
+                    columnTypes[i] = Types.LONGNVARCHAR;
+                }
+            }
+        }
+        return columnTypes;
+    }
+    
+    /**
+     * Reads a column value according to its JDBC type. LOB, long character, XML and
+     * binary values are read as streams and capped at the configured preview length,
+     * so a single large value cannot exhaust the heap. Binary values are returned base64 encoded.
+     */
+    private Object readColumnValue(ResultSet rs, int index, int sqlType) throws SQLException {
+        int previewLength = config.getLobPreviewLength();
         
-        if (sql == null || sql.trim().isEmpty()) {
-            throw new SQLException("SQL query cannot be null or empty");
+        switch (sqlType) {
+            case Types.CLOB:
+            case Types.NCLOB: {
+                Clob clob = getClobIfSupported(rs, index);
+                if (clob == null) {
+                    return readCharacters(rs.getCharacterStream(index), previewLength, null);
+                }
+                try {
+                    return readCharacters(clob.getCharacterStream(), previewLength, clob.length());
+                } finally {
+                    clob.free();
+                }
+            }
+            case Types.BLOB: {
+                Blob blob = getBlobIfSupported(rs, index);
+                if (blob == null) {
+                    return readBytes(rs.getBinaryStream(index), previewLength, null);
+                }
+                try {
+                    return readBytes(blob.getBinaryStream(), previewLength, blob.length());
+                } finally {
+                    blob.free();
+                }
+            }
+            case Types.LONGVARCHAR:
+            case Types.LONGNVARCHAR:
+            case Types.SQLXML:
+                return readCharacters(rs.getCharacterStream(index), previewLength, null);
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+                return readBytes(rs.getBinaryStream(index), previewLength, null);
+            default:
+                return rs.getObject(index);
+        }
+    }
+    
+    /**
+     * Returns the Clob locator, or null if the value is null or the driver
+     * does not implement locators (e.g. SQLite), in which case callers fall back to streams.
+     */
+    private Clob getClobIfSupported(ResultSet rs, int index) throws SQLException {
+        try {
+            return rs.getClob(index);
+        } catch (SQLFeatureNotSupportedException e) {
+            return null;
+        }
+    }
+    
+    private Blob getBlobIfSupported(ResultSet rs, int index) throws SQLException {
+        try {
+            return rs.getBlob(index);
+        } catch (SQLFeatureNotSupportedException e) {
+            return null;
+        }
+    }
+    
+    private Object readCharacters(Reader reader, int limit, Long length) throws SQLException {
+        if (reader == null) {
+            return null;
         }
         
-        // Basic validation: ensure it's a SELECT query (if querySelectOnly is true)
-        String trimmedSql = sql.trim().toUpperCase();
-        if (config.isQuerySelectOnly() && !trimmedSql.startsWith("SELECT")) {
-            throw new SQLException("Only SELECT queries are allowed");
+        try (Reader in = reader) {
+            // Read in fixed-size chunks, so short values do not pay for a preview-sized buffer,
+            // and one character past the limit to detect truncation without knowing the length
+            StringBuilder text = new StringBuilder();
+            char[] buffer = new char[Math.min(limit + 1, READ_BUFFER_LENGTH)];
+            while (text.length() <= limit) {
+                int n = in.read(buffer, 0, Math.min(buffer.length, limit + 1 - text.length()));
+                if (n < 0) {
+                    break;
+                }
+                text.append(buffer, 0, n);
+            }
+            
+            if (text.length() <= limit) {
+                return text.toString();
+            }
+            return truncatedValue(text.substring(0, limit), length, text.length(), null);
+        } catch (IOException e) {
+            throw new SQLException("Unable to read character data: " + e.getMessage(), e);
+        }
+    }
+    
+    private Object readBytes(InputStream stream, int limit, Long length) throws SQLException {
+        if (stream == null) {
+            return null;
         }
         
-        // Check for multiple statements (basic protection)
-        if (sql.contains(";")) {
-            throw new SQLException("Multiple statements are not allowed");
+        try (InputStream in = stream) {
+            // readNBytes grows its buffer as data arrives rather than allocating the limit upfront
+            byte[] bytes = in.readNBytes(limit + 1);
+            if (bytes.length <= limit) {
+                return Base64.getEncoder().encodeToString(bytes);
+            }
+            return truncatedValue(Base64.getEncoder().encodeToString(Arrays.copyOf(bytes, limit)), length,
+                bytes.length, "base64");
+        } catch (IOException e) {
+            throw new SQLException("Unable to read binary data: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Describes a truncated value. The full length is known from LOB locators; values read as
+     * streams are not read to the end, so only a lower bound (lengthAtLeast) is reported for them.
+     */
+    private Map<String, Object> truncatedValue(String preview, Long length, long read, String encoding) {
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("preview", preview);
+        if (encoding != null) {
+            value.put("encoding", encoding);
+        }
+        value.put("truncated", true);
+        if (length != null) {
+            value.put("length", length);
+        } else {
+            value.put("lengthAtLeast", read);
+        }
+        return value;
+    }
+
+    /**
+     * Reads a chunk of a single LOB, long text or binary value identified by key columns.
+     * Offsets and lengths are in characters for text and in bytes for binary data.
+     */
+    public Map<String, Object> readLob(String schema, String tableName, String columnName,
+                                       Map<String, Object> key, long offset, Integer length) throws SQLException {
+        validateQueryTableInputs(schema, tableName, null);
+        if (key == null || key.isEmpty()) {
+            throw new SQLException("Key columns are required to identify the row");
+        }
+        if (offset < 0) {
+            throw new SQLException("Offset cannot be negative");
+        }
+        int chunkLength = length != null ? length : Math.min(config.getLobPreviewLength(), MAX_LOB_CHUNK_LENGTH);
+        if (chunkLength <= 0 || chunkLength > MAX_LOB_CHUNK_LENGTH) {
+            throw new SQLException("Length must be between 1 and " + MAX_LOB_CHUNK_LENGTH);
+        }
+        
+        // Column names must exist in the table; they come from the catalog and are quoted
+        Set<String> knownColumns = new HashSet<>();
+        for (ColumnInfo column : getTableStructure(schema, tableName).getColumns()) {
+            knownColumns.add(column.getColumnName());
+        }
+        List<String> referenced = new ArrayList<>(key.keySet());
+        referenced.add(columnName);
+        for (String name : referenced) {
+            if (!knownColumns.contains(name)) {
+                throw new SQLException("Unknown column: " + name);
+            }
         }
         
-        logger.warn("Executing raw SQL query (SELECT only: {}): {}", config.isQuerySelectOnly(), sql);
+        StringBuilder query = new StringBuilder("SELECT ")
+            .append(quoteIdentifier(columnName))
+            .append(" FROM ")
+            .append(buildFullTableName(schema, tableName))
+            .append(" WHERE ");
+        List<Object> keyValues = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : key.entrySet()) {
+            if (!keyValues.isEmpty()) {
+                query.append(" AND ");
+            }
+            query.append(quoteIdentifier(entry.getKey())).append(" = ?");
+            keyValues.add(entry.getValue());
+        }
         
         try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement()) {
-            
-            // Use executeQuery for SELECT, execute for other statements
-            boolean isSelect = trimmedSql.startsWith("SELECT");
+             PreparedStatement pstmt = conn.prepareStatement(query.toString())) {
+            for (int i = 0; i < keyValues.size(); i++) {
+                pstmt.setObject(i + 1, keyValues.get(i));
+            }
+            pstmt.setMaxRows(2);
             
-            if (isSelect) {
-                try (ResultSet rs = stmt.executeQuery(sql)) {
-                    ResultSetMetaData metaData = rs.getMetaData();
-                    int columnCount = metaData.getColumnCount();
-                    
-                    while (rs.next()) {
-                        Map<String, Object> row = new LinkedHashMap<>();
-                        for (int i = 1; i <= columnCount; i++) {
-                            String columnName = metaData.getColumnName(i);
-                            Object value = rs.getObject(i);
-                            row.put(columnName, value);
-                        }
-                        results.add(row);
-                    }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("No row matches the given key");
+                }
+                Map<String, Object> chunk = readLobChunk(rs, rs.getMetaData().getColumnType(1), offset, chunkLength);
+                if (rs.next()) {
+                    throw new SQLException("Key matches more than one row");
                 }
-            } else {
-                // For non-SELECT queries (INSERT, UPDATE, DELETE, etc.)
-                int affectedRows = stmt.executeUpdate(sql);
-                Map<String, Object> result = new LinkedHashMap<>();
-                result.put("affectedRows", affectedRows);
-                result.put("message", "Query executed successfully");
-                results.add(result);
+                return chunk;
             }
         }
+    }
+    
+    private Map<String, Object> readLobChunk(ResultSet rs, int sqlType, long offset, int chunkLength) throws SQLException {
+        Map<String, Object> chunk = new LinkedHashMap<>();
+        chunk.put("offset", offset);
         
-        return results;
+        switch (sqlType) {
+            case Types.CLOB:
+            case Types.NCLOB: {
+                Clob clob = getClobIfSupported(rs, 1);
+                if (clob == null) {
+                    return readCharacterChunk(rs, chunk, offset, chunkLength);
+                }
+                try {
+                    long total = clob.length();
+                    // getSubString is 1-based and reads only the requested range from the locator
+                    String data = offset < total
+                        ? clob.getSubString(offset + 1, (int) Math.min(chunkLength, total - offset)) : "";
+                    chunk.put("data", data);
+                    chunk.put("length", data.length());
+                    chunk.put("totalLength", total);
+                    chunk.put("hasMore", offset + data.length() < total);
+                } finally {
+                    clob.free();
+                }
+                return chunk;
+            }
+            case Types.BLOB: {
+                Blob blob = getBlobIfSupported(rs, 1);
+                if (blob == null) {
+                    return readBinaryChunk(rs, chunk, offset, chunkLength);
+                }
+                try {
+                    long total = blob.length();
+                    byte[] data = offset < total
+                        ? blob.getBytes(offset + 1, (int) Math.min(chunkLength, total - offset)) : new byte[0];
+                    chunk.put("data", Base64.getEncoder().encodeToString(data));
+                    chunk.put("encoding", "base64");
+                    chunk.put("length", data.length);
+                    chunk.put("totalLength", total);
+                    chunk.put("hasMore", offset + data.length < total);
+                } finally {
+                    blob.free();
+                }
+                return chunk;
+            }
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+                return readBinaryChunk(rs, chunk, offset, chunkLength);
+            default:
+                return readCharacterChunk(rs, chunk, offset, chunkLength);
+        }
+    }
+    
+    private Map<String, Object> readBinaryChunk(ResultSet rs, Map<String, Object> chunk, long offset, int chunkLength)
+            throws SQLException {
+        try (InputStream in = rs.getBinaryStream(1)) {
+            if (in == null) {
+                chunk.put("data", null);
+                return chunk;
+            }
+            byte[] data;
+            try {
+                in.skipNBytes(offset);
+                data = in.readNBytes(chunkLength);
+            } catch (EOFException e) {
+                data = new byte[0];
+            }
+            chunk.put("data", Base64.getEncoder().encodeToString(data));
+            chunk.put("encoding", "base64");
+            chunk.put("length", data.length);
+            chunk.put("hasMore", in.read() >= 0);
+            return chunk;
+        } catch (IOException e) {
+            throw new SQLException("Unable to read binary data: " + e.getMessage(), e);
+        }
+    }
+    
+    private Map<String, Object> readCharacterChunk(ResultSet rs, Map<String, Object> chunk, long offset, int chunkLength)
+            throws SQLException {
+        try (Reader in = rs.getCharacterStream(1)) {
+            if (in == null) {
+                chunk.put("data", null);
+                return chunk;
+            }
+            long remaining = offset;
+            while (remaining > 0) {
+                long skipped = in.skip(remaining);
+                if (skipped <= 0) {
+                    break;
+                }
+                remaining -= skipped;
+            }
+            char[] buffer = new char[chunkLength];
+            int read = 0;
+            while (remaining == 0 && read < chunkLength) {
+                int n = in.read(buffer, read, chunkLength - read);
+                if (n < 0) {
+                    break;
+                }
+                read += n;
+            }
+            chunk.put("data", new String(buffer, 0, read));
+            chunk.put("length", read);
+            chunk.put("hasMore", in.read() >= 0);
+            return chunk;
+        } catch (IOException e) {
+            throw new SQLException("Unable to read character data: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Profiles the columns of a table with a single aggregate query computed by the database:
+     * row count, null count, min/max and (approximate where supported) distinct count.
+     * Top-k values need a GROUP BY per column and are only computed when topK is set.
+     * If samplePercent is set, the table is sampled server-side to bound the cost on large tables.
+     */
+    public TableProfile profileTable(String schema, String tableName, List<String> columnNames,
+                                     Double samplePercent, Integer topK) throws SQLException {
+        validateQueryTableInputs(schema, tableName, null);
+        if (samplePercent != null && (samplePercent <= 0 || samplePercent > 100)) {
+            throw new SQLException("Sample percent must be greater than 0 and at most 100");
+        }
+        if (topK != null && (topK < 0 || topK > MAX_PROFILE_TOP_K)) {
+            throw new SQLException("Top-k must be between 0 and " + MAX_PROFILE_TOP_K);
+        }
+        
+        List<ColumnInfo> columns = selectProfileColumns(getTableStructure(schema, tableName), columnNames);
+        String source = buildSampledSource(buildFullTableName(schema, tableName), samplePercent);
+        
+        List<ColumnProfile> profiles = new ArrayList<>();
+        try (Connection conn = getConnection()) {
+            boolean approximateDistinct = supportsApproxCountDistinct(conn.getMetaData());
+            String count = countFunction();
+            
+            // One aggregate query for all columns: COUNT(*), then per column COUNT(col), MIN, MAX, distinct
+            StringBuilder query = new StringBuilder("SELECT " + count + "(*)");
+            for (ColumnInfo column : columns) {
+                String quoted = quoteIdentifier(column.getColumnName());
+                query.append(", ").append(count).append("(").append(quoted).append(")");
+                if (isOrderable(column.getSqlType())) {
+                    query.append(", MIN(").append(quoted).append("), MAX(").append(quoted).append(")");
+                }
+                if (isGroupable(column.getSqlType())) {
+                    query.append(approximateDistinct ? ", APPROX_COUNT_DISTINCT(" : ", " + count + "(DISTINCT ")
+                        .append(quoted).append(")");
+                }
+            }
+            query.append(" FROM ").append(source);
+            
+            logger.debug("Profiling table with query: {}", query);
+            checkQueryAdmission(conn, query.toString(), true);
+            
+            long rowCount;
+            List<Object[]> aggregates = new ArrayList<>();
+            
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(query.toString())) {
+                rs.next();
+                rowCount = rs.getLong(1);
+                // MIN/MAX of text columns are capped at the preview length like query results
+                int[] columnTypes = readColumnTypes(rs.getMetaData());
+                int index = 2;
+                for (ColumnInfo column : columns) {
+                    // {nullCount, min, max, distinct}
+                    Object[] values = new Object[4];
+                    values[0] = rowCount - rs.getLong(index++);
+                    if (isOrderable(column.getSqlType())) {
+                        values[1] = readColumnValue(rs, index, columnTypes[index]);
+                        index++;
+                        values[2] = readColumnValue(rs, index, columnTypes[index]);
+                        index++;
+                    }
+                    if (isGroupable(column.getSqlType())) {
+                        values[3] = rs.getLong(index++);
+                    }
+                    aggregates.add(values);
+                }
+            }
+            
+            for (int i = 0; i < columns.size(); i++) {
+                ColumnInfo column = columns.get(i);
+                Object[] values = aggregates.get(i);
+                List<Map<String, Object>> topValues = null;
+                if (topK != null && topK > 0 && isGroupable(column.getSqlType())) {
+                    topValues = queryTopValues(conn, source, column.getColumnName(), topK);
+                }
+                profiles.add(new ColumnProfile(column.getColumnName(), column.getDataType(), (Long) values[0],
+                    values[1], values[2], (Long) values[3], approximateDistinct && values[3] != null, topValues));
+            }
+            
+            return new TableProfile(schema, tableName, rowCount, samplePercent, profiles);
+        }
+    }
+    
+    /**
+     * Returns the current maximum value of a column, used as the starting point of a keyset scan.
+     * The column name must come from the catalog (see getTableStructure).
+     */
+    public Object queryMaxValue(String schema, String tableName, String columnName) throws SQLException {
+        validateQueryTableInputs(schema, tableName, null);
+        String query = "SELECT MAX(" + quoteIdentifier(columnName) + ") FROM " + buildFullTableName(schema, tableName);
+        
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+            return rs.next() ? rs.getObject(1) : null;
+        }
+    }
+    
+    /**
+     * Returns up to limit rows whose keyColumn is greater than lastSeen, in keyColumn order.
+     * If lastSeen is null all rows are candidates. The column name must come from the catalog.
+     */
+    public List<Map<String, Object>> queryRowsAfter(String schema, String tableName, String keyColumn,
+                                                    Object lastSeen, int limit) throws SQLException {
+        validateQueryTableInputs(schema, tableName, limit);
+        String quotedKey = quoteIdentifier(keyColumn);
+        String ordered = SELECT_FROM + buildFullTableName(schema, tableName)
+            + (lastSeen != null ? " WHERE " + quotedKey + " > ?" : "")
+            + " ORDER BY " + quotedKey;
+        
+        String query;
+        switch (config.getType()) {
+            case ORACLE:
+                query = "SELECT * FROM (" + ordered + ") WHERE ROWNUM <= " + limit;
+                break;
+            case SQLSERVER:
+                query = "SELECT TOP " + limit + " " + ordered.substring("SELECT ".length());
+                break;
+            default:
+                query = ordered + " LIMIT " + limit;
+                break;
+        }
+        
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
+            if (lastSeen != null) {
+                pstmt.setObject(1, lastSeen);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return extractResultSet(rs);
+            }
+        }
+    }
+    
+    private List<ColumnInfo> selectProfileColumns(TableInfo tableInfo, List<String> columnNames) throws SQLException {
+        if (tableInfo.getColumns().isEmpty()) {
+            throw new SQLException("Table not found or has no columns: " + tableInfo.getTableName());
+        }
+        
+        List<ColumnInfo> selected = new ArrayList<>();
+        if (columnNames == null || columnNames.isEmpty()) {
+            selected.addAll(tableInfo.getColumns());
+        } else {
+            Map<String, ColumnInfo> byName = new HashMap<>();
+            for (ColumnInfo column : tableInfo.getColumns()) {
+                byName.put(column.getColumnName(), column);
+            }
+            for (String columnName : columnNames) {
+                ColumnInfo column = byName.get(columnName);
+                if (column == null) {
+                    throw new SQLException("Unknown column: " + columnName);
+                }
+                selected.add(column);
+            }
+        }
+        
+        if (selected.size() > MAX_PROFILE_COLUMNS) {
+            throw new SQLException("Cannot profile more than " + MAX_PROFILE_COLUMNS + " columns at once");
+        }
+        return selected;
+    }
+    
+    private String buildSampledSource(String fullTableName, Double samplePercent) {
+        if (samplePercent == null || samplePercent >= 100) {
+            return fullTableName;
+        }
+        
+        switch (config.getType()) {
+            case POSTGRESQL:
+                return fullTableName + " TABLESAMPLE SYSTEM (" + samplePercent + ")";
+            case ORACLE:
+                return fullTableName + " SAMPLE (" + samplePercent + ")";
+            case SQLSERVER:
+                return fullTableName + " TABLESAMPLE (" + samplePercent + " PERCENT)";
+            case MYSQL:
+            case MARIADB:
+                // No block sampling: filter rows randomly, which still reads the table but bounds the aggregation
+                return "(SELECT * FROM " + fullTableName + " WHERE RAND() < " + (samplePercent / 100) + ") sampled";
+            case SQLITE:
+                return "(SELECT * FROM " + fullTableName + " WHERE ABS(RANDOM()) % 1000000 < "
+                    + Math.round(samplePercent * 10000) + ") sampled";
+            default:
+                return fullTableName;
+        }
+    }
+    
+    /**
+     * APPROX_COUNT_DISTINCT exists from Oracle 12.1.0.2 and SQL Server 2019 (major version 15);
+     * older releases fall back to COUNT(DISTINCT).
+     */
+    private boolean supportsApproxCountDistinct(DatabaseMetaData metaData) throws SQLException {
+        switch (config.getType()) {
+            case ORACLE:
+                // Major and minor versions cannot tell 12.1.0.1 from 12.1.0.2; the product version can
+                Matcher release = Pattern.compile("(\\d+)\\.(\\d+)\\.(\\d+)\\.(\\d+)")
+                    .matcher(metaData.getDatabaseProductVersion());
+                if (!release.find()) {
+                    return metaData.getDatabaseMajorVersion() > 12
+                        || metaData.getDatabaseMajorVersion() == 12 && metaData.getDatabaseMinorVersion() >= 2;
+                }
+                int[] version = new int[4];
+                for (int i = 0; i < version.length; i++) {
+                    version[i] = Integer.parseInt(release.group(i + 1));
+                }
+                return Arrays.compare(version, new int[]{12, 1, 0, 2}) >= 0;
+            case SQLSERVER:
+                return metaData.getDatabaseMajorVersion() >= 15;
+            default:
+                return false;
+        }
+    }
+    
+    /**
+     * COUNT returns int on SQL Server and overflows above 2^31 rows; COUNT_BIG returns bigint.
+     */
+    private String countFunction() {
+        return config.getType() == com.dgdev91.mcpsql.model.DatabaseType.SQLSERVER ? "COUNT_BIG" : "COUNT";
+    }
+    
+    /**
+     * Whether values of this JDBC type can be grouped and counted distinctly.
+     * LOB, binary and structured types are excluded.
+     */
+    private boolean isGroupable(int sqlType) {
+        switch (sqlType) {
+            case Types.BLOB:
+            case Types.CLOB:
+            case Types.NCLOB:
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.LONGVARCHAR:
+            case Types.LONGNVARCHAR:
+            case Types.SQLXML:
+            case Types.ARRAY:
+            case Types.STRUCT:
+            case Types.JAVA_OBJECT:
+            case Types.OTHER:
+                return false;
+            default:
+                return true;
+        }
+    }
+    
+    /**
+     * Whether MIN/MAX are meaningful for this JDBC type. Booleans are excluded
+     * because several databases reject MIN/MAX on them.
+     */
+    private boolean isOrderable(int sqlType) {
+        return isGroupable(sqlType) && sqlType != Types.BOOLEAN && sqlType != Types.BIT;
+    }
+    
+    private List<Map<String, Object>> queryTopValues(Connection conn, String source, String columnName, int topK)
+            throws SQLException {
+        String quoted = quoteIdentifier(columnName);
+        String count = countFunction();
+        String grouped = "SELECT " + quoted + " AS top_value, " + count + "(*) AS frequency FROM " + source
+            + " GROUP BY " + quoted + " ORDER BY " + count + "(*) DESC";
+        
+        String query;
+        switch (config.getType()) {
+            case ORACLE:
+                query = "SELECT * FROM (" + grouped + ") WHERE ROWNUM <= " + topK;
+                break;
+            case SQLSERVER:
+                query = "SELECT TOP " + topK + " " + grouped.substring("SELECT ".length());
+                break;
+            default:
+                query = grouped + " LIMIT " + topK;
+                break;
+        }
+        
+        checkQueryAdmission(conn, query, true);
+        
+        List<Map<String, Object>> topValues = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+            int valueType = readColumnTypes(rs.getMetaData())[1];
+            while (rs.next()) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("value", readColumnValue(rs, 1, valueType));
+                entry.put("count", rs.getLong(2));
+                topValues.add(entry);
+            }
+        }
+        return topValues;
+    }
+
+    /**
+     * Executes a raw SQL query.
+     * WARNING: This method is potentially unsafe as it accepts arbitrary SQL.
+     * It should only be used with trusted input. The caller is responsible
+     * for ensuring the SQL is safe and does not contain user-controlled data
+     * without proper sanitization.
+     */
+    public List<Map<String, Object>> executeQuery(String sql) throws SQLException {
+        List<Map<String, Object>> results = new ArrayList<>();
+        
+        validateRawSql(sql);
+        String trimmedSql = sql.trim().toUpperCase();
+        
+        // Use executeQuery for SELECT, execute for other statements
+        boolean isSelect = trimmedSql.startsWith("SELECT");
+        
+        try (Connection conn = getConnection()) {
+            if (isSelect) {
+                checkQueryAdmission(conn, sql, true);
+            }
+            
+            logger.warn("Executing raw SQL query (SELECT only: {}): {}", config.isQuerySelectOnly(), sql);
+            
+            try (Statement stmt = conn.createStatement()) {
+                if (isSelect) {
+                    try (ResultSet rs = stmt.executeQuery(sql)) {
+                        results = extractResultSet(rs);
+                    }
+                } else {
+                    // For non-SELECT queries (INSERT, UPDATE, DELETE, etc.)
+                    int affectedRows = stmt.executeUpdate(sql);
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    result.put("affectedRows", affectedRows);
+                    result.put("message", "Query executed successfully");
+                    results.add(result);
+                }
+            }
+        }
+        
+        return results;
+    }
+
+    /**
+     * Callback that consumes a streamed result set row by row.
+     */
+    @FunctionalInterface
+    public interface ResultSetConsumer {
+        void accept(ResultSet rs) throws SQLException, IOException;
+    }
+
+    /**
+     * Executes a SELECT query and hands the open result set to the consumer without
+     * materializing it. The driver is configured to fetch rows in batches of fetchSize
+     * (PostgreSQL needs autocommit off for cursor-based fetching, MySQL streams row by row).
+     * The cost threshold of executeQuery applies; the row threshold does not, since it keeps
+     * tool responses small and streamed results are meant to be large.
+     */
+    public void streamQuery(String sql, int fetchSize, ResultSetConsumer consumer) throws SQLException, IOException {
+        validateRawSql(sql);
+        if (!sql.trim().toUpperCase().startsWith("SELECT")) {
+            throw new SQLException("Only SELECT queries can be streamed");
+        }
+        
+        try (Connection conn = getConnection()) {
+            checkQueryAdmission(conn, sql, false);
+            
+            logger.warn("Streaming raw SQL query: {}", sql);
+            
+            boolean autoCommit = conn.getAutoCommit();
+            if (config.getType() == com.dgdev91.mcpsql.model.DatabaseType.POSTGRESQL) {
+                conn.setAutoCommit(false);
+            }
+            
+            try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(config.getType() == com.dgdev91.mcpsql.model.DatabaseType.MYSQL
+                    ? Integer.MIN_VALUE : fetchSize);
+                try (ResultSet rs = stmt.executeQuery(sql)) {
+                    consumer.accept(rs);
+                }
+            } finally {
+                if (conn.getAutoCommit() != autoCommit) {
+                    conn.rollback();
+                    conn.setAutoCommit(autoCommit);
+                }
+            }
+        }
+    }
+
+    /**
+     * Validates a raw SQL string before it is sent to the database.
+     * Rejects empty input, non-SELECT statements when querySelectOnly is enabled,
+     * and anything that looks like multiple statements.
+     */
+    private void validateRawSql(String sql) throws SQLException {
+        if (sql == null || sql.trim().isEmpty()) {
+            throw new SQLException("SQL query cannot be null or empty");
+        }
+        
+        // Basic validation: ensure it's a SELECT query (if querySelectOnly is true)
+        String trimmedSql = sql.trim().toUpperCase();
+        if (config.isQuerySelectOnly() && !trimmedSql.startsWith("SELECT")) {
+            throw new SQLException("Only SELECT queries are allowed");
+        }
+        
+        // Check for multiple statements (basic protection)
+        if (sql.contains(";")) {
+            throw new SQLException("Multiple statements are not allowed");
+        }
+    }
+
+    /**
+     * Rejects a query before it runs if the optimizer estimates exceed the
+     * configured cost or row thresholds. Does nothing when no threshold is set.
+     * The plan is taken on the connection that will run the query.
+     *
+     * @param limitRows whether the row threshold applies in addition to the cost threshold
+     */
+    private void checkQueryAdmission(Connection conn, String sql, boolean limitRows) throws SQLException {
+        Double maxCost = config.getMaxQueryCost();
+        Double maxRows = limitRows ? config.getMaxQueryRows() : null;
+        if (maxCost == null && maxRows == null) {
+            return;
+        }
+        
+        QueryPlan plan;
+        try {
+            plan = explain(conn, sql);
+        } catch (SQLException e) {
+            throw new SQLException("Query rejected: unable to estimate query cost: " + e.getMessage(), e);
+        }
+        
+        if (maxCost != null && plan.getEstimatedCost() != null && plan.getEstimatedCost() > maxCost) {
+            throw new SQLException("Query rejected: estimated cost " + plan.getEstimatedCost()
+                + " exceeds limit " + maxCost + ". Plan: " + plan.getSummary());
+        }
+        if (maxRows != null && plan.getEstimatedRows() != null && plan.getEstimatedRows() > maxRows) {
+            throw new SQLException("Query rejected: estimated rows " + plan.getEstimatedRows()
+                + " exceeds limit " + maxRows + ". Plan: " + plan.getSummary());
+        }
+        if (plan.getEstimatedCost() == null && plan.getEstimatedRows() == null) {
+            logger.debug("No cost estimate available for {}, admission check skipped", config.getType());
+        }
+    }
+
+    /**
+     * Returns the optimizer plan for a query without executing it.
+     */
+    public QueryPlan explainQuery(String sql) throws SQLException {
+        validateRawSql(sql);
+        
+        try (Connection conn = getConnection()) {
+            return explain(conn, sql);
+        }
+    }
+    
+    private QueryPlan explain(Connection conn, String sql) throws SQLException {
+        switch (config.getType()) {
+            case POSTGRESQL:
+                return explainPostgres(conn, sql);
+            case ORACLE:
+                return explainOracle(conn, sql);
+            case SQLSERVER:
+                return explainSqlServer(conn, sql);
+            case MYSQL:
+            case MARIADB:
+                return explainMySql(conn, sql);
+            case SQLITE:
+                return explainSqlite(conn, sql);
+            default:
+                throw new SQLException("EXPLAIN is not supported for " + config.getType());
+        }
+    }
+    
+    private QueryPlan explainPostgres(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("EXPLAIN (FORMAT JSON) " + sql)) {
+            if (!rs.next()) {
+                throw new SQLException("EXPLAIN returned no plan");
+            }
+            JsonNode root = readJson(rs.getString(1));
+            JsonNode topPlan = root.path(0).path("Plan");
+            Double cost = topPlan.has("Total Cost") ? topPlan.get("Total Cost").asDouble() : null;
+            Double rows = topPlan.has("Plan Rows") ? topPlan.get("Plan Rows").asDouble() : null;
+            
+            String summary = topPlan.path("Node Type").asText("?");
+            if (topPlan.has("Relation Name")) {
+                summary += " on " + topPlan.get("Relation Name").asText();
+            }
+            summary += " (cost=" + cost + " rows=" + rows + ")";
+            return new QueryPlan(config.getType(), root, cost, rows, summary);
+        }
+    }
+    
+    private QueryPlan explainOracle(Connection conn, String sql) throws SQLException {
+        String statementId = "JMCP_" + Long.toHexString(System.nanoTime());
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("EXPLAIN PLAN SET STATEMENT_ID = '" + statementId + "' FOR " + sql);
+            }
+            
+            Double cost = null;
+            Double rows = null;
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "SELECT cost, cardinality FROM plan_table WHERE statement_id = ? AND id = 0")) {
+                pstmt.setString(1, statementId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        cost = getNullableDouble(rs, 1);
+                        rows = getNullableDouble(rs, 2);
+                    }
+                }
+            }
+            
+            List<String> lines = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "SELECT plan_table_output FROM TABLE(DBMS_XPLAN.DISPLAY('PLAN_TABLE', ?, 'TYPICAL'))")) {
+                pstmt.setString(1, statementId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        lines.add(rs.getString(1));
+                    }
+                }
+            }
+            
+            String plan = String.join("\n", lines);
+            return new QueryPlan(config.getType(), plan, cost, rows, summarizeLines(lines));
+        } finally {
+            // Plan rows are only needed for this call; discard them
+            conn.rollback();
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+    
+    private QueryPlan explainSqlServer(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SET SHOWPLAN_XML ON");
+            try {
+                String xml;
+                try (ResultSet rs = stmt.executeQuery(sql)) {
+                    if (!rs.next()) {
+                        throw new SQLException("SHOWPLAN_XML returned no plan");
+                    }
+                    xml = rs.getString(1);
+                }
+                
+                Double cost = findXmlAttribute(xml, "StatementSubTreeCost");
+                Double rows = findXmlAttribute(xml, "StatementEstRows");
+                Matcher op = Pattern.compile("PhysicalOp=\"([^\"]*)\"").matcher(xml);
+                String summary = (op.find() ? op.group(1) : "?") + " (cost=" + cost + " rows=" + rows + ")";
+                return new QueryPlan(config.getType(), xml, cost, rows, summary);
+            } finally {
+                stmt.execute("SET SHOWPLAN_XML OFF");
+            }
+        }
+    }
+    
+    private QueryPlan explainMySql(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("EXPLAIN FORMAT=JSON " + sql)) {
+            if (!rs.next()) {
+                throw new SQLException("EXPLAIN returned no plan");
+            }
+            JsonNode root = readJson(rs.getString(1));
+            JsonNode costNode = root.findValue("query_cost");
+            Double cost = costNode != null ? costNode.asDouble() : null;
+            
+            Double rows = estimateMySqlRows(root.path("query_block"));
+            
+            JsonNode table = root.findValue("table_name");
+            JsonNode access = root.findValue("access_type");
+            String summary = (access != null ? access.asText() : "?")
+                + (table != null ? " on " + table.asText() : "")
+                + " (cost=" + cost + " rows=" + rows + ")";
+            return new QueryPlan(config.getType(), root, cost, rows, summary);
+        }
+    }
+    
+    /**
+     * Estimates the rows returned by the outermost join of a MySQL/MariaDB JSON plan, comparable to
+     * PostgreSQL's Plan Rows. MySQL reports rows_produced_per_join cumulatively, so the last table of
+     * the join holds the estimate for the whole join; MariaDB reports only rows per scan and filtered,
+     * so the estimate is their product across the joined tables.
+     */
+    private Double estimateMySqlRows(JsonNode queryBlock) {
+        List<JsonNode> tables = new ArrayList<>();
+        JsonNode join = queryBlock.findValue("nested_loop");
+        if (join != null && join.isArray()) {
+            for (JsonNode step : join) {
+                JsonNode table = step.has("table") ? step.get("table") : step.findValue("table");
+                if (table != null) {
+                    tables.add(table);
+                }
+            }
+        } else {
+            JsonNode table = queryBlock.findValue("table");
+            if (table != null) {
+                tables.add(table);
+            }
+        }
+        if (tables.isEmpty()) {
+            return null;
+        }
+        
+        JsonNode produced = tables.get(tables.size() - 1).get("rows_produced_per_join");
+        if (produced != null) {
+            return produced.asDouble();
+        }
+        Double rows = null;
+        for (JsonNode table : tables) {
+            JsonNode scan = table.has("rows_examined_per_scan") ? table.get("rows_examined_per_scan") : table.get("rows");
+            if (scan != null) {
+                double filtered = table.has("filtered") ? table.get("filtered").asDouble() / 100 : 1;
+                rows = (rows == null ? 1 : rows) * scan.asDouble() * filtered;
+            }
+        }
+        return rows;
+    }
+    
+    private QueryPlan explainSqlite(Connection conn, String sql) throws SQLException {
+        List<String> lines = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("EXPLAIN QUERY PLAN " + sql)) {
+            while (rs.next()) {
+                lines.add(rs.getString("detail"));
+            }
+        }
+        // SQLite does not expose cost or cardinality estimates
+        return new QueryPlan(config.getType(), lines, null, null, String.join("; ", lines));
+    }
+    
+    private JsonNode readJson(String json) throws SQLException {
+        try {
+            return objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new SQLException("Unable to parse query plan: " + e.getOriginalMessage(), e);
+        }
+    }
+    
+    private Double findXmlAttribute(String xml, String attribute) {
+        Matcher matcher = Pattern.compile(attribute + "=\"([^\"]*)\"").matcher(xml);
+        if (!matcher.find()) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(matcher.group(1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    private Double getNullableDouble(ResultSet rs, int index) throws SQLException {
+        double value = rs.getDouble(index);
+        return rs.wasNull() ? null : value;
+    }
+    
+    private Long getNullableLong(ResultSet rs, int index) throws SQLException {
+        long value = rs.getLong(index);
+        return rs.wasNull() ? null : value;
+    }
+    
+    private String summarizeLines(List<String> lines) {
+        int limit = Math.min(lines.size(), PLAN_SUMMARY_LINES);
+        return String.join("\n", lines.subList(0, limit));
     }
 
     public void testConnection() throws SQLException {
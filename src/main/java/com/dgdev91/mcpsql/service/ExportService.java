@@ -0,0 +1,300 @@
+package com.dgdev91.mcpsql.service;
+
+import com.dgdev91.mcpsql.model.ExportJob;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams query results to files in the configured export directory as background jobs.
+ */
+public class ExportService {
+    private static final Logger logger = LogManager.getLogger(ExportService.class);
+    private static final int EXPORT_FETCH_SIZE = 10000;
+    private static final int WRITE_BUFFER_SIZE = 1024 * 1024;
+    private static final int MAX_CONCURRENT_EXPORTS = 2;
+    private static final int MAX_QUEUED_EXPORTS = 20;
+    // Finished jobs stay queryable for this long; the files themselves are left in place
+    private static final long FINISHED_JOB_RETENTION_MILLIS = TimeUnit.HOURS.toMillis(1);
+    // LOB values are copied in chunks of this size; a multiple of 3 so base64 chunks need no padding
+    private static final int LOB_CHUNK_SIZE = 3 * 8192;
+    private static final String FORMAT_NDJSON = "ndjson";
+    private static final String FORMAT_CSV = "csv";
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final DatabaseService databaseService;
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService executor = new ThreadPoolExecutor(MAX_CONCURRENT_EXPORTS, MAX_CONCURRENT_EXPORTS,
+        0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(MAX_QUEUED_EXPORTS), runnable -> {
+            Thread thread = new Thread(runnable, "export-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    public ExportService(DatabaseService databaseService) {
+        this.databaseService = databaseService;
+    }
+
+    /**
+     * Starts exporting the results of a SELECT query and returns immediately.
+     * The file is named after the job id, so callers cannot choose arbitrary paths.
+     */
+    public ExportJob startExport(String sql, String format, boolean gzip) throws SQLException {
+        String exportDirectory = databaseService.getConfig().getExportDirectory();
+        if (exportDirectory == null || exportDirectory.isEmpty()) {
+            throw new SQLException("Export is disabled: JMCP_EXPORT_DIR is not configured");
+        }
+        String exportFormat = format == null ? FORMAT_NDJSON : format.toLowerCase();
+        if (!exportFormat.equals(FORMAT_NDJSON) && !exportFormat.equals(FORMAT_CSV)) {
+            throw new SQLException("Unsupported export format: " + format + " (expected ndjson or csv)");
+        }
+        if (sql == null || !sql.trim().toUpperCase().startsWith("SELECT")) {
+            throw new SQLException("Only SELECT queries can be exported");
+        }
+
+        evictFinishedJobs();
+        String jobId = UUID.randomUUID().toString();
+        Path file = Paths.get(exportDirectory).toAbsolutePath()
+            .resolve("export-" + jobId + "." + exportFormat + (gzip ? ".gz" : ""));
+        ExportJob job = new ExportJob(jobId, file.toString(), exportFormat, gzip);
+        jobs.put(jobId, job);
+
+        try {
+            executor.execute(() -> runExport(job, sql, file));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(jobId);
+            throw new SQLException("Too many exports in progress (at most " + MAX_CONCURRENT_EXPORTS
+                + " running and " + MAX_QUEUED_EXPORTS + " queued), retry later");
+        }
+        logger.info("Started export job {} to {}", jobId, file);
+        return job;
+    }
+
+    public ExportJob getJob(String jobId) throws SQLException {
+        ExportJob job = jobId != null ? jobs.get(jobId) : null;
+        if (job == null) {
+            throw new SQLException("Unknown export job: " + jobId);
+        }
+        return job;
+    }
+
+    private void evictFinishedJobs() {
+        long cutoff = System.currentTimeMillis() - FINISHED_JOB_RETENTION_MILLIS;
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt() < cutoff);
+    }
+
+    private void runExport(ExportJob job, String sql, Path file) {
+        try {
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                 CountingOutputStream counter = new CountingOutputStream(Channels.newOutputStream(channel), job);
+                 OutputStream out = wrapOutput(counter, job.isGzip())) {
+                databaseService.streamQuery(sql, EXPORT_FETCH_SIZE, rs -> {
+                    if (FORMAT_CSV.equals(job.getFormat())) {
+                        writeCsv(rs, out, job);
+                    } else {
+                        writeNdjson(rs, out, job);
+                    }
+                });
+            }
+            job.complete();
+            logger.info("Export job {} completed: {} rows, {} bytes", job.getJobId(), job.getRowsWritten(), job.getBytesWritten());
+        } catch (Exception e) {
+            logger.error("Export job {} failed", job.getJobId(), e);
+            job.fail(e.getMessage());
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException deleteError) {
+                logger.warn("Unable to delete partial export file {}", file, deleteError);
+            }
+        }
+    }
+
+    private OutputStream wrapOutput(OutputStream out, boolean gzip) throws IOException {
+        if (gzip) {
+            return new GZIPOutputStream(new BufferedOutputStream(out, WRITE_BUFFER_SIZE), WRITE_BUFFER_SIZE);
+        }
+        return new BufferedOutputStream(out, WRITE_BUFFER_SIZE);
+    }
+
+    private void writeNdjson(ResultSet rs, OutputStream out, ExportJob job) throws SQLException, IOException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        int[] columnTypes = databaseService.readColumnTypes(metaData);
+
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        long rows = 0;
+        while (rs.next()) {
+            generator.writeStartObject();
+            for (int i = 1; i <= columnCount; i++) {
+                generator.writeFieldName(metaData.getColumnName(i));
+                writeJsonValue(generator, rs, i, columnTypes[i]);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            job.setRowsWritten(++rows);
+        }
+        generator.flush();
+    }
+
+    private void writeCsv(ResultSet rs, OutputStream out, ExportJob job) throws SQLException, IOException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        int[] columnTypes = databaseService.readColumnTypes(metaData);
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+
+        for (int i = 1; i <= columnCount; i++) {
+            if (i > 1) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(metaData.getColumnName(i)));
+        }
+        writer.write("\r\n");
+
+        long rows = 0;
+        while (rs.next()) {
+            for (int i = 1; i <= columnCount; i++) {
+                if (i > 1) {
+                    writer.write(',');
+                }
+                writeCsvValue(writer, rs, i, columnTypes[i]);
+            }
+            writer.write("\r\n");
+            job.setRowsWritten(++rows);
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes a value as JSON. The column type comes from DatabaseService.readColumnTypes, so
+     * unbounded (N)VARCHAR columns (PostgreSQL text, SQL Server nvarchar(max)) count as long text.
+     * Unlike query results, exports contain LOB values in full:
+     * they are copied from the driver's stream into the generator in chunks, so a large
+     * value is never held in memory. Binary data is base64 encoded.
+     */
+    private void writeJsonValue(JsonGenerator generator, ResultSet rs, int index, int sqlType)
+            throws SQLException, IOException {
+        if (isCharacterLob(sqlType)) {
+            try (Reader reader = rs.getCharacterStream(index)) {
+                if (reader == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeString(reader, -1);
+                }
+            }
+        } else if (isBinary(sqlType)) {
+            try (InputStream in = rs.getBinaryStream(index)) {
+                if (in == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeBinary(in, -1);
+                }
+            }
+        } else {
+            generator.writeObject(rs.getObject(index));
+        }
+    }
+
+    /**
+     * Writes a value as a CSV field, streaming LOB values like writeJsonValue. Streamed text
+     * is always quoted, since whether it needs quoting is only known once it has been read.
+     */
+    private void writeCsvValue(Writer writer, ResultSet rs, int index, int sqlType) throws SQLException, IOException {
+        if (isCharacterLob(sqlType)) {
+            try (Reader reader = rs.getCharacterStream(index)) {
+                if (reader != null) {
+                    char[] buffer = new char[LOB_CHUNK_SIZE];
+                    writer.write('"');
+                    int read;
+                    while ((read = reader.read(buffer)) != -1) {
+                        int start = 0;
+                        for (int i = 0; i < read; i++) {
+                            if (buffer[i] == '"') {
+                                writer.write(buffer, start, i + 1 - start);
+                                writer.write('"');
+                                start = i + 1;
+                            }
+                        }
+                        writer.write(buffer, start, read - start);
+                    }
+                    writer.write('"');
+                }
+            }
+        } else if (isBinary(sqlType)) {
+            try (InputStream in = rs.getBinaryStream(index)) {
+                if (in != null) {
+                    Base64.Encoder encoder = Base64.getEncoder();
+                    byte[] buffer = new byte[LOB_CHUNK_SIZE];
+                    int read;
+                    while ((read = in.readNBytes(buffer, 0, buffer.length)) > 0) {
+                        writer.write(encoder.encodeToString(read == buffer.length ? buffer : Arrays.copyOf(buffer, read)));
+                    }
+                }
+            }
+        } else {
+            Object value = rs.getObject(index);
+            if (value != null) {
+                writer.write(escapeCsv(value.toString()));
+            }
+        }
+    }
+
+    private boolean isCharacterLob(int sqlType) {
+        return sqlType == Types.CLOB || sqlType == Types.NCLOB || sqlType == Types.LONGVARCHAR
+            || sqlType == Types.LONGNVARCHAR || sqlType == Types.SQLXML;
+    }
+
+    private boolean isBinary(int sqlType) {
+        return sqlType == Types.BLOB || sqlType == Types.BINARY || sqlType == Types.VARBINARY
+            || sqlType == Types.LONGVARBINARY;
+    }
+
+    private String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Counts bytes written to the file (after compression) and reports them on the job.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private final ExportJob job;
+        private long count;
+
+        CountingOutputStream(OutputStream out, ExportJob job) {
+            super(out);
+            this.job = job;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            job.setBytesWritten(++count);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+            job.setBytesWritten(count);
+        }
+    }
+}
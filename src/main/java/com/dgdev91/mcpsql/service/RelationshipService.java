@@ -0,0 +1,215 @@
+package com.dgdev91.mcpsql.service;
+
+import com.dgdev91.mcpsql.model.ForeignKeyInfo;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory graph of foreign-key relationships. Foreign keys are loaded in bulk per schema
+ * on first use and cached for the schema index refresh interval. Join paths are found with
+ * a breadth-first search over the graph, following keys in both directions.
+ */
+public class RelationshipService {
+    private static final Logger logger = LogManager.getLogger(RelationshipService.class);
+    private static final int DEFAULT_MAX_HOPS = 6;
+
+    private final DatabaseService databaseService;
+    private final Map<String, CachedSchema> cache = new ConcurrentHashMap<>();
+
+    public RelationshipService(DatabaseService databaseService) {
+        this.databaseService = databaseService;
+    }
+
+    /**
+     * Returns the foreign keys of a schema. If a table is given, only keys declared by it
+     * or referencing it are returned.
+     */
+    public List<Map<String, Object>> getRelationships(String schema, String tableName) throws SQLException {
+        List<Map<String, Object>> relationships = new ArrayList<>();
+        for (ForeignKeyInfo foreignKey : getForeignKeys(schema)) {
+            boolean outgoing = foreignKey.getTableName().equals(tableName);
+            boolean incoming = foreignKey.getReferencedTableName().equals(tableName)
+                && foreignKey.getReferencedSchema().equals(schema);
+            if (tableName == null || outgoing || incoming) {
+                relationships.add(formatForeignKey(foreignKey));
+            }
+        }
+        return relationships;
+    }
+
+    /**
+     * Returns the shortest foreign-key path between two tables, as a list of join steps
+     * and a ready-to-use FROM/JOIN clause.
+     */
+    public Map<String, Object> findJoinPath(String schema, String fromTable, String toSchema, String toTable,
+                                            Integer maxHops) throws SQLException {
+        if (fromTable == null || toTable == null) {
+            throw new SQLException("Both fromTable and toTable are required");
+        }
+        String targetSchema = toSchema != null ? toSchema : schema;
+        int hopLimit = maxHops != null ? maxHops : DEFAULT_MAX_HOPS;
+
+        Map<String, List<Edge>> graph = new HashMap<>();
+        addToGraph(graph, getForeignKeys(schema));
+        if (!targetSchema.equals(schema)) {
+            addToGraph(graph, getForeignKeys(targetSchema));
+        }
+
+        String start = node(schema, fromTable);
+        String target = node(targetSchema, toTable);
+        List<Edge> path = shortestPath(graph, start, target, hopLimit);
+        if (path == null) {
+            throw new SQLException("No foreign-key path within " + hopLimit + " hops between "
+                + start + " and " + target);
+        }
+
+        List<Map<String, Object>> steps = new ArrayList<>();
+        StringBuilder joinClause = new StringBuilder("FROM ")
+            .append(qualifiedName(schema, fromTable));
+        for (Edge edge : path) {
+            Map<String, Object> step = new LinkedHashMap<>();
+            step.put("fromTable", edge.fromTable());
+            step.put("fromColumns", edge.fromColumns());
+            step.put("toTable", edge.toTable());
+            step.put("toColumns", edge.toColumns());
+            step.put("constraint", edge.foreignKey().getConstraintName());
+            step.put("cardinality", edge.forward() ? "many-to-one" : "one-to-many");
+            steps.add(step);
+
+            joinClause.append(" JOIN ").append(qualifiedName(edge.toSchema(), edge.toTable())).append(" ON ");
+            for (int i = 0; i < edge.fromColumns().size(); i++) {
+                if (i > 0) {
+                    joinClause.append(" AND ");
+                }
+                joinClause.append(qualifiedName(edge.fromSchema(), edge.fromTable())).append('.')
+                    .append(databaseService.quoteIdentifier(edge.fromColumns().get(i)))
+                    .append(" = ")
+                    .append(qualifiedName(edge.toSchema(), edge.toTable())).append('.')
+                    .append(databaseService.quoteIdentifier(edge.toColumns().get(i)));
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("hops", path.size());
+        result.put("steps", steps);
+        result.put("joinClause", joinClause.toString());
+        return result;
+    }
+
+    private List<ForeignKeyInfo> getForeignKeys(String schema) throws SQLException {
+        if (schema == null || schema.trim().isEmpty()) {
+            throw new SQLException("Schema name cannot be null or empty");
+        }
+
+        long ttlMillis = TimeUnit.SECONDS.toMillis(databaseService.getConfig().getSchemaIndexRefreshSeconds());
+        CachedSchema cached = cache.get(schema);
+        if (cached == null || System.currentTimeMillis() - cached.loadedAt() > ttlMillis) {
+            long start = System.nanoTime();
+            cached = new CachedSchema(databaseService.listForeignKeys(schema), System.currentTimeMillis());
+            cache.put(schema, cached);
+            logger.info("Loaded {} foreign keys for schema {} in {} ms", cached.foreignKeys().size(), schema,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return cached.foreignKeys();
+    }
+
+    private void addToGraph(Map<String, List<Edge>> graph, List<ForeignKeyInfo> foreignKeys) {
+        for (ForeignKeyInfo fk : foreignKeys) {
+            graph.computeIfAbsent(node(fk.getSchema(), fk.getTableName()), k -> new ArrayList<>())
+                .add(new Edge(fk, true));
+            graph.computeIfAbsent(node(fk.getReferencedSchema(), fk.getReferencedTableName()), k -> new ArrayList<>())
+                .add(new Edge(fk, false));
+        }
+    }
+
+    private List<Edge> shortestPath(Map<String, List<Edge>> graph, String start, String target, int maxHops) {
+        if (start.equals(target)) {
+            return List.of();
+        }
+
+        Map<String, Edge> reachedBy = new HashMap<>();
+        Set<String> visited = new HashSet<>(Set.of(start));
+        List<String> frontier = List.of(start);
+        for (int hop = 0; hop < maxHops && !frontier.isEmpty(); hop++) {
+            List<String> next = new ArrayList<>();
+            for (String current : frontier) {
+                for (Edge edge : graph.getOrDefault(current, List.of())) {
+                    String neighbour = node(edge.toSchema(), edge.toTable());
+                    if (!visited.add(neighbour)) {
+                        continue;
+                    }
+                    reachedBy.put(neighbour, edge);
+                    if (neighbour.equals(target)) {
+                        LinkedList<Edge> path = new LinkedList<>();
+                        for (String n = target; !n.equals(start); ) {
+                            Edge step = reachedBy.get(n);
+                            path.addFirst(step);
+                            n = node(step.fromSchema(), step.fromTable());
+                        }
+                        return path;
+                    }
+                    next.add(neighbour);
+                }
+            }
+            frontier = next;
+        }
+        return null;
+    }
+
+    private String qualifiedName(String schema, String tableName) {
+        return databaseService.quoteIdentifier(schema) + "." + databaseService.quoteIdentifier(tableName);
+    }
+
+    private static String node(String schema, String tableName) {
+        return schema + "." + tableName;
+    }
+
+    private static Map<String, Object> formatForeignKey(ForeignKeyInfo foreignKey) {
+        Map<String, Object> relationship = new LinkedHashMap<>();
+        relationship.put("constraint", foreignKey.getConstraintName());
+        relationship.put("schema", foreignKey.getSchema());
+        relationship.put("table", foreignKey.getTableName());
+        relationship.put("columns", foreignKey.getColumns());
+        relationship.put("referencedSchema", foreignKey.getReferencedSchema());
+        relationship.put("referencedTable", foreignKey.getReferencedTableName());
+        relationship.put("referencedColumns", foreignKey.getReferencedColumns());
+        return relationship;
+    }
+
+    private record CachedSchema(List<ForeignKeyInfo> foreignKeys, long loadedAt) {
+    }
+
+    /**
+     * A traversal of a foreign key: forward goes from the referencing table to the referenced one.
+     */
+    private record Edge(ForeignKeyInfo foreignKey, boolean forward) {
+        String fromSchema() {
+            return forward ? foreignKey.getSchema() : foreignKey.getReferencedSchema();
+        }
+
+        String fromTable() {
+            return forward ? foreignKey.getTableName() : foreignKey.getReferencedTableName();
+        }
+
+        List<String> fromColumns() {
+            return forward ? foreignKey.getColumns() : foreignKey.getReferencedColumns();
+        }
+
+        String toSchema() {
+            return forward ? foreignKey.getReferencedSchema() : foreignKey.getSchema();
+        }
+
+        String toTable() {
+            return forward ? foreignKey.getReferencedTableName() : foreignKey.getTableName();
+        }
+
+        List<String> toColumns() {
+            return forward ? foreignKey.getReferencedColumns() : foreignKey.getColumns();
+        }
+    }
+}
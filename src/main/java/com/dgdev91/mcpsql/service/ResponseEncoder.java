@@ -0,0 +1,192 @@
+package com.dgdev91.mcpsql.service;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import com.dgdev91.mcpsql.model.DatabaseConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.github.luben.zstd.Zstd;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodes HTTP response bodies according to the client's Accept and Accept-Encoding headers.
+ * JSON is the default; Smile and CBOR are used only when the client asks for them.
+ * Bodies of at least the configured size are compressed with the best encoding both sides support.
+ */
+public class ResponseEncoder {
+    private static final Logger logger = LogManager.getLogger(ResponseEncoder.class);
+    public static final String CONTENT_TYPE_JSON = "application/json";
+    public static final String CONTENT_TYPE_SMILE = "application/x-jackson-smile";
+    public static final String CONTENT_TYPE_CBOR = "application/cbor";
+    private static final String ENCODING_ZSTD = "zstd";
+    private static final String ENCODING_BROTLI = "br";
+    private static final String ENCODING_GZIP = "gzip";
+    // Levels favour speed: responses are compressed once per request, on the request thread
+    private static final int ZSTD_LEVEL = 3;
+    private static final int BROTLI_QUALITY = 4;
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper smileMapper = new SmileMapper();
+    private final ObjectMapper cborMapper = new CBORMapper();
+    private final int minCompressionBytes;
+    private final List<String> encodings = new ArrayList<>();
+
+    /**
+     * Encoded body with the headers that describe it; contentEncoding is null when not compressed.
+     */
+    public record EncodedResponse(byte[] body, String contentType, String contentEncoding) {
+    }
+
+    public ResponseEncoder(DatabaseConfig config, ObjectMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+        this.minCompressionBytes = config.getHttpCompressionMinBytes();
+
+        for (String encoding : config.getHttpCompressionEncodings().split(",")) {
+            String name = encoding.trim().toLowerCase(Locale.ROOT);
+            if (name.isEmpty() || name.equals("none")) {
+                continue;
+            }
+            if (!name.equals(ENCODING_ZSTD) && !name.equals(ENCODING_BROTLI) && !name.equals(ENCODING_GZIP)) {
+                throw new IllegalArgumentException("Unsupported HTTP compression: " + name + " (expected zstd, br or gzip)");
+            }
+            if (isAvailable(name)) {
+                encodings.add(name);
+            }
+        }
+        logger.info("HTTP response compression: {} (min {} bytes)", encodings.isEmpty() ? "disabled" : encodings,
+            minCompressionBytes);
+    }
+
+    /**
+     * Encodes a response.
+     *
+     * @param json the value already serialized as JSON, or null; reused when the client gets JSON
+     */
+    public EncodedResponse encode(Object value, byte[] json, String accept, String acceptEncoding) throws IOException {
+        String contentType = negotiateContentType(accept);
+        byte[] body = switch (contentType) {
+            case CONTENT_TYPE_SMILE -> smileMapper.writeValueAsBytes(value);
+            case CONTENT_TYPE_CBOR -> cborMapper.writeValueAsBytes(value);
+            default -> json != null ? json : jsonMapper.writeValueAsBytes(value);
+        };
+
+        String encoding = body.length >= minCompressionBytes ? negotiateEncoding(acceptEncoding) : null;
+        if (encoding == null) {
+            return new EncodedResponse(body, contentType, null);
+        }
+        return new EncodedResponse(compress(body, encoding), contentType, encoding);
+    }
+
+    /**
+     * Returns whether the client will get Smile or CBOR for this Accept header.
+     */
+    public boolean isBinary(String accept) {
+        return !CONTENT_TYPE_JSON.equals(negotiateContentType(accept));
+    }
+
+    private byte[] compress(byte[] body, String encoding) throws IOException {
+        switch (encoding) {
+            case ENCODING_ZSTD:
+                return Zstd.compress(body, ZSTD_LEVEL);
+            case ENCODING_BROTLI:
+                return Encoder.compress(body, new Encoder.Parameters().setQuality(BROTLI_QUALITY));
+            default:
+                ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192)) {
+                    gzip.write(body);
+                }
+                return out.toByteArray();
+        }
+    }
+
+    /**
+     * Picks Smile or CBOR only when the client lists it explicitly and prefers it at least as much as JSON.
+     */
+    private String negotiateContentType(String accept) {
+        Map<String, Double> accepted = parseQualities(accept);
+        double json = accepted.getOrDefault(CONTENT_TYPE_JSON, 0.0);
+        double smile = accepted.getOrDefault(CONTENT_TYPE_SMILE, 0.0);
+        double cbor = accepted.getOrDefault(CONTENT_TYPE_CBOR, 0.0);
+
+        if (smile > 0 && smile >= json && smile >= cbor) {
+            return CONTENT_TYPE_SMILE;
+        }
+        if (cbor > 0 && cbor >= json) {
+            return CONTENT_TYPE_CBOR;
+        }
+        return CONTENT_TYPE_JSON;
+    }
+
+    /**
+     * Picks the enabled encoding with the highest client quality; ties go to the server's order.
+     */
+    private String negotiateEncoding(String acceptEncoding) {
+        Map<String, Double> accepted = parseQualities(acceptEncoding);
+        String best = null;
+        double bestQuality = 0;
+        for (String encoding : encodings) {
+            double quality = accepted.getOrDefault(encoding, accepted.getOrDefault("*", 0.0));
+            if (quality > bestQuality) {
+                best = encoding;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    private static Map<String, Double> parseQualities(String header) {
+        Map<String, Double> qualities = new HashMap<>();
+        if (header == null) {
+            return qualities;
+        }
+        for (String part : header.split(",")) {
+            String[] fields = part.split(";");
+            String name = fields[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < fields.length; i++) {
+                String parameter = fields[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (!name.isEmpty()) {
+                qualities.merge(name, quality, Math::max);
+            }
+        }
+        return qualities;
+    }
+
+    /**
+     * Brotli and zstd use native libraries; an encoding is skipped if its library cannot load on this platform.
+     */
+    private static boolean isAvailable(String encoding) {
+        try {
+            switch (encoding) {
+                case ENCODING_ZSTD:
+                    Zstd.compress(new byte[1], ZSTD_LEVEL);
+                    return true;
+                case ENCODING_BROTLI:
+                    if (!Brotli4jLoader.isAvailable()) {
+                        logger.warn("Brotli compression unavailable: {}", Brotli4jLoader.getUnavailabilityCause().getMessage());
+                    }
+                    return Brotli4jLoader.isAvailable();
+                default:
+                    return true;
+            }
+        } catch (Throwable e) {
+            logger.warn("{} compression unavailable: {}", encoding, e.getMessage());
+            return false;
+        }
+    }
+}
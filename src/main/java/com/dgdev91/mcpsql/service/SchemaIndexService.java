@@ -0,0 +1,399 @@
+package com.dgdev91.mcpsql.service;
+
+import com.dgdev91.mcpsql.model.ColumnInfo;
+import com.dgdev91.mcpsql.model.TableInfo;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory search index over schema, table and column names and their remarks.
+ * Names are indexed by trigrams for fuzzy matching, remarks by word tokens.
+ * The index is built in the background and refreshed periodically. System schemas are not indexed.
+ * Refreshes are incremental: a catalog query per schema returns a DDL version per table, and only
+ * tables whose version changed are reloaded. Searches run against an immutable snapshot that is
+ * swapped only when something changed.
+ */
+public class SchemaIndexService {
+    private static final Logger logger = LogManager.getLogger(SchemaIndexService.class);
+    private static final String KIND_SCHEMA = "schema";
+    private static final String KIND_TABLE = "table";
+    private static final String KIND_COLUMN = "column";
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 200;
+    private static final double MIN_SIMILARITY = 0.2;
+    // Above this many changed tables one bulk load of the schema is cheaper than per-table lookups
+    private static final int MAX_INCREMENTAL_TABLES = 50;
+
+    private final DatabaseService databaseService;
+    private final Map<String, SchemaState> schemaStates = new LinkedHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "schema-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Snapshot snapshot;
+
+    public SchemaIndexService(DatabaseService databaseService) {
+        this.databaseService = databaseService;
+    }
+
+    /**
+     * Builds the index in the background and schedules periodic refreshes.
+     */
+    public void start() {
+        long refreshSeconds = databaseService.getConfig().getSchemaIndexRefreshSeconds();
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, refreshSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Returns the best matches for the query, ranked by name similarity and remark matches.
+     *
+     * @param kind "table", "column" or null for both
+     */
+    public List<Map<String, Object>> search(String query, String kind, Integer limit) throws SQLException {
+        Snapshot current = snapshot;
+        if (current == null) {
+            throw new SQLException("Schema index is still being built, try again shortly");
+        }
+        if (query == null || query.trim().isEmpty()) {
+            throw new SQLException("Search query cannot be null or empty");
+        }
+        if (kind != null && !KIND_SCHEMA.equals(kind) && !KIND_TABLE.equals(kind) && !KIND_COLUMN.equals(kind)) {
+            throw new SQLException("Kind must be 'schema', 'table' or 'column'");
+        }
+        int maxResults = limit != null ? Math.min(Math.max(limit, 1), MAX_LIMIT) : DEFAULT_LIMIT;
+
+        return current.search(query.trim().toLowerCase(Locale.ROOT), kind, maxResults);
+    }
+
+    private void refresh() {
+        long start = System.nanoTime();
+        try {
+            List<String> schemas = databaseService.listUserSchemas();
+            boolean changed = schemaStates.keySet().retainAll(schemas);
+            int reloadedTables = 0;
+
+            for (String schema : schemas) {
+                try {
+                    int reloaded = refreshSchema(schema);
+                    if (reloaded != 0) {
+                        changed = true;
+                        reloadedTables += Math.max(reloaded, 0);
+                    }
+                } catch (SQLException e) {
+                    logger.warn("Unable to index schema {}: {}", schema, e.getMessage());
+                }
+            }
+
+            if (changed || snapshot == null) {
+                List<Entry> all = new ArrayList<>();
+                for (Map.Entry<String, SchemaState> state : schemaStates.entrySet()) {
+                    all.add(new Entry(KIND_SCHEMA, state.getKey(), null, null, null, null));
+                    state.getValue().entriesByTable.values().forEach(all::addAll);
+                }
+                snapshot = new Snapshot(all);
+                logger.info("Schema index rebuilt: {} entries, {} tables reloaded in {} ms", all.size(), reloadedTables,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        } catch (Exception e) {
+            logger.warn("Schema index refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Brings one schema up to date. Returns the number of tables reloaded, -1 if the index
+     * changed without reloading tables (dropped tables, a new empty schema), or 0 if nothing changed.
+     */
+    private int refreshSchema(String schema) throws SQLException {
+        Map<String, String> versions;
+        try {
+            versions = databaseService.getTableVersions(schema);
+        } catch (SQLException e) {
+            logger.debug("Table versions unavailable for schema {}, reloading it fully: {}", schema, e.getMessage());
+            versions = null;
+        }
+
+        SchemaState state = schemaStates.get(schema);
+        if (state == null || versions == null) {
+            Map<String, List<Entry>> entries = loadEntries(schema, databaseService.getSchemaStructure(schema));
+            boolean changed = state == null || !entries.equals(state.entriesByTable);
+            schemaStates.put(schema, new SchemaState(versions, entries));
+            // A new schema changes the index even without tables, since schemas are entries too
+            return !changed ? 0 : entries.isEmpty() ? -1 : entries.size();
+        }
+
+        List<String> changedTables = new ArrayList<>();
+        for (Map.Entry<String, String> version : versions.entrySet()) {
+            if (!version.getValue().equals(state.versions.get(version.getKey()))) {
+                changedTables.add(version.getKey());
+            }
+        }
+        boolean dropped = state.entriesByTable.keySet().retainAll(versions.keySet());
+        state.versions = versions;
+        if (changedTables.isEmpty()) {
+            return dropped ? -1 : 0;
+        }
+
+        List<TableInfo> tables = changedTables.size() > MAX_INCREMENTAL_TABLES
+            ? databaseService.getSchemaStructure(schema)
+            : databaseService.getSchemaStructure(schema, changedTables);
+        Map<String, List<Entry>> reloaded = loadEntries(schema, tables);
+        for (String tableName : changedTables) {
+            List<Entry> entries = reloaded.get(tableName);
+            if (entries != null) {
+                state.entriesByTable.put(tableName, entries);
+            } else {
+                state.entriesByTable.remove(tableName);
+            }
+        }
+        return changedTables.size();
+    }
+
+    private Map<String, List<Entry>> loadEntries(String schema, List<TableInfo> tables) {
+        Map<String, List<Entry>> entriesByTable = new LinkedHashMap<>();
+        for (TableInfo table : tables) {
+            List<Entry> entries = new ArrayList<>();
+            entries.add(new Entry(KIND_TABLE, schema, table.getTableName(), null, null, table.getRemarks()));
+            for (ColumnInfo column : table.getColumns()) {
+                entries.add(new Entry(KIND_COLUMN, schema, table.getTableName(), column.getColumnName(),
+                    column.getDataType(), column.getRemarks()));
+            }
+            entriesByTable.put(table.getTableName(), entries);
+        }
+        return entriesByTable;
+    }
+
+    private static Set<String> trigrams(String text) {
+        String padded = "$" + text + "$";
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        if (result.isEmpty()) {
+            result.add(padded);
+        }
+        return result;
+    }
+
+    private static List<String> tokens(String text) {
+        List<String> result = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.length() > 1) {
+                result.add(token);
+            }
+        }
+        return result;
+    }
+
+    private record Entry(String kind, String schema, String table, String column, String dataType, String remarks) {
+        String name() {
+            return column != null ? column : table != null ? table : schema;
+        }
+    }
+
+    /**
+     * Indexed entries of one schema, per table, with the table versions they were loaded at.
+     */
+    private static class SchemaState {
+        private Map<String, String> versions;
+        private final Map<String, List<Entry>> entriesByTable;
+
+        SchemaState(Map<String, String> versions, Map<String, List<Entry>> entriesByTable) {
+            this.versions = versions;
+            this.entriesByTable = entriesByTable;
+        }
+    }
+
+    private static class Snapshot {
+        private final Entry[] entries;
+        private final String[] names;
+        private final int[] trigramCounts;
+        private final Map<String, int[]> trigramPostings;
+        private final Map<String, int[]> tokenPostings;
+
+        Snapshot(List<Entry> entryList) {
+            entries = entryList.toArray(new Entry[0]);
+            names = new String[entries.length];
+            trigramCounts = new int[entries.length];
+
+            Map<String, List<Integer>> trigramLists = new HashMap<>();
+            Map<String, List<Integer>> tokenLists = new HashMap<>();
+            for (int i = 0; i < entries.length; i++) {
+                names[i] = entries[i].name().toLowerCase(Locale.ROOT);
+                Set<String> grams = trigrams(names[i]);
+                trigramCounts[i] = grams.size();
+                for (String gram : grams) {
+                    trigramLists.computeIfAbsent(gram, k -> new ArrayList<>()).add(i);
+                }
+                // Tokens cover name parts (e.g. customer_id) and remarks
+                Set<String> entryTokens = new HashSet<>(tokens(names[i]));
+                if (entries[i].remarks() != null) {
+                    entryTokens.addAll(tokens(entries[i].remarks()));
+                }
+                for (String token : entryTokens) {
+                    tokenLists.computeIfAbsent(token, k -> new ArrayList<>()).add(i);
+                }
+            }
+
+            trigramPostings = toPostings(trigramLists);
+            tokenPostings = toPostings(tokenLists);
+        }
+
+        private static Map<String, int[]> toPostings(Map<String, List<Integer>> lists) {
+            Map<String, int[]> postings = new HashMap<>(lists.size() * 2);
+            for (Map.Entry<String, List<Integer>> entry : lists.entrySet()) {
+                postings.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+            }
+            return postings;
+        }
+
+        List<Map<String, Object>> search(String query, String kind, int limit) {
+            Set<String> queryGrams = trigrams(query);
+            List<int[]> gramPostings = new ArrayList<>();
+            List<int[]> tokenMatches = new ArrayList<>();
+            int postingLength = 0;
+            for (String gram : queryGrams) {
+                int[] posting = trigramPostings.get(gram);
+                if (posting != null) {
+                    gramPostings.add(posting);
+                    postingLength += posting.length;
+                }
+            }
+            for (String token : tokens(query)) {
+                int[] posting = tokenPostings.get(token);
+                if (posting != null) {
+                    tokenMatches.add(posting);
+                    postingLength += posting.length;
+                }
+            }
+
+            CandidateCounts counts = new CandidateCounts(postingLength, entries.length);
+            for (int[] posting : gramPostings) {
+                for (int id : posting) {
+                    counts.addSharedGram(id);
+                }
+            }
+            for (int[] posting : tokenMatches) {
+                for (int id : posting) {
+                    counts.addTokenHit(id);
+                }
+            }
+
+            // Keep only the best `limit` matches in a min-heap ordered by score
+            PriorityQueue<double[]> best = new PriorityQueue<>(limit + 1, (a, b) -> Double.compare(a[0], b[0]));
+            for (int slot = 0; slot < counts.ids.length; slot++) {
+                if (counts.ids[slot] == 0) {
+                    continue;
+                }
+                int id = counts.ids[slot] - 1;
+                Entry entry = entries[id];
+                if (kind != null && !kind.equals(entry.kind())) {
+                    continue;
+                }
+
+                int shared = counts.sharedGrams[slot];
+                double similarity = (double) shared / (queryGrams.size() + trigramCounts[id] - shared);
+                double score = similarity >= MIN_SIMILARITY ? similarity : 0;
+                if (names[id].equals(query)) {
+                    score += 1.0;
+                } else if (names[id].startsWith(query)) {
+                    score += 0.5;
+                } else if (names[id].contains(query)) {
+                    score += 0.3;
+                }
+                score += 0.2 * counts.tokenHits[slot];
+                // Prefer a schema over its tables, and a table over its columns, when they match equally
+                if (KIND_SCHEMA.equals(entry.kind())) {
+                    score += 0.02;
+                } else if (KIND_TABLE.equals(entry.kind())) {
+                    score += 0.01;
+                }
+
+                if (score > 0 && (best.size() < limit || score > best.peek()[0])) {
+                    best.add(new double[]{score, id});
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+
+            List<double[]> scored = new ArrayList<>(best);
+            scored.sort((a, b) -> Double.compare(b[0], a[0]));
+            List<Map<String, Object>> results = new ArrayList<>();
+            for (int i = 0; i < scored.size(); i++) {
+                Entry entry = entries[(int) scored.get(i)[1]];
+                Map<String, Object> match = new LinkedHashMap<>();
+                match.put("kind", entry.kind());
+                match.put("schema", entry.schema());
+                if (entry.table() != null) {
+                    match.put("table", entry.table());
+                }
+                if (entry.column() != null) {
+                    match.put("column", entry.column());
+                    match.put("type", entry.dataType());
+                }
+                if (entry.remarks() != null && !entry.remarks().isEmpty()) {
+                    match.put("remarks", entry.remarks());
+                }
+                match.put("score", Math.round(scored.get(i)[0] * 1000) / 1000.0);
+                results.add(match);
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Per-query match counters for candidate entries only, in an open-addressing table of
+     * primitive ints, so a query costs in proportion to its matches rather than the catalog size.
+     * The table is sized from the summed posting lengths, which bound the number of candidates,
+     * so it never grows. When the postings cover a sizeable part of the catalog, slots are
+     * indexed directly by entry id: the query already costs that much, and lookups are cheaper.
+     */
+    private static class CandidateCounts {
+        // Entry id + 1 per slot; 0 marks an empty slot
+        private final int[] ids;
+        private final int[] sharedGrams;
+        private final int[] tokenHits;
+        private final boolean direct;
+
+        CandidateCounts(int maxCandidates, int entryCount) {
+            direct = (long) maxCandidates * 4 >= entryCount;
+            int capacity = direct ? entryCount : Integer.highestOneBit(Math.max(maxCandidates, 8) * 2 - 1) * 2;
+            ids = new int[capacity];
+            sharedGrams = new int[capacity];
+            tokenHits = new int[capacity];
+        }
+
+        void addSharedGram(int id) {
+            sharedGrams[slot(id)]++;
+        }
+
+        void addTokenHit(int id) {
+            tokenHits[slot(id)]++;
+        }
+
+        /**
+         * Returns the slot of an entry, adding it if it is not a candidate yet.
+         */
+        private int slot(int id) {
+            if (direct) {
+                ids[id] = id + 1;
+                return id;
+            }
+            int mask = ids.length - 1;
+            int hash = id * 0x9E3779B9;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (ids[slot] != 0 && ids[slot] != id + 1) {
+                slot = (slot + 1) & mask;
+            }
+            ids[slot] = id + 1;
+            return slot;
+        }
+    }
+}
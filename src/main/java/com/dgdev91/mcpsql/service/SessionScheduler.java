@@ -0,0 +1,294 @@
+package com.dgdev91.mcpsql.service;
+
+import com.dgdev91.mcpsql.model.DatabaseConfig;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shares database concurrency fairly between client sessions.
+ * Each session has a token bucket that limits its request rate, and requests wait in a
+ * weighted fair queue (start-time fair queueing) for one of a fixed number of execution slots,
+ * so an aggressive session cannot starve the others. Per-session usage is kept for metrics.
+ */
+public class SessionScheduler {
+    private static final Logger logger = LogManager.getLogger(SessionScheduler.class);
+    private static final long IDLE_SESSION_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final long EVICTION_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final int MAX_SESSIONS = 10000;
+
+    /**
+     * Work executed once the session has been granted a slot.
+     */
+    @FunctionalInterface
+    public interface Task<T> {
+        T call() throws Exception;
+    }
+
+    private final DatabaseConfig config;
+    private final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+    private long lastEviction = System.currentTimeMillis();
+    private final Object lock = new Object();
+    private final PriorityQueue<Waiter> waiting = new PriorityQueue<>(
+        Comparator.comparingDouble((Waiter w) -> w.startTag).thenComparingLong(w -> w.sequence));
+    private int running;
+    private double virtualTime;
+    private long sequence;
+
+    public SessionScheduler(DatabaseConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Runs the task on behalf of a session, after the rate limit check and once a slot is free.
+     * Callers with a verified API key share one session per key; other callers are grouped by address,
+     * optionally split by a server-issued client session id up to the per-address limit.
+     *
+     * @param apiKey          the caller's API key, only if it was checked against the configured keys
+     * @param address         the caller's remote address
+     * @param clientSessionId a session id issued by this server to the caller, or null
+     */
+    public <T> T execute(String apiKey, String address, String clientSessionId, Task<T> task) throws Exception {
+        SessionState session = session(apiKey, address, clientSessionId);
+        session.lastSeen = System.currentTimeMillis();
+
+        if (!session.tryConsumeToken(config.getRateLimitPerSecond(), config.getRateLimitBurst())) {
+            session.rejected.incrementAndGet();
+            throw new SQLException("Rate limit exceeded for session " + session.id + ", retry later");
+        }
+
+        long queuedAt = System.nanoTime();
+        acquire(session);
+        long startedAt = System.nanoTime();
+        try {
+            T result = task.call();
+            // Tool results that are row lists count towards the session's row usage
+            if (result instanceof Collection<?> rows) {
+                session.rowsReturned.addAndGet(rows.size());
+            }
+            return result;
+        } finally {
+            release();
+            long finishedAt = System.nanoTime();
+            session.requests.incrementAndGet();
+            session.queueNanos.addAndGet(startedAt - queuedAt);
+            session.dbNanos.addAndGet(finishedAt - startedAt);
+        }
+    }
+
+    /**
+     * Returns the scheduler state and per-session usage. Sessions idle for more than an hour are dropped.
+     */
+    public Map<String, Object> getMetrics() {
+        synchronized (sessions) {
+            evictIdleSessions(System.currentTimeMillis());
+        }
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        synchronized (lock) {
+            metrics.put("running", running);
+            metrics.put("queued", waiting.size());
+        }
+        metrics.put("maxConcurrent", config.getMaxConcurrentQueries());
+        metrics.put("rateLimitPerSecond", config.getRateLimitPerSecond());
+
+        List<Map<String, Object>> sessionMetrics = new ArrayList<>();
+        for (SessionState session : sessions.values()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("session", session.id);
+            entry.put("weight", session.weight);
+            entry.put("requests", session.requests.get());
+            entry.put("rejected", session.rejected.get());
+            entry.put("rowsReturned", session.rowsReturned.get());
+            entry.put("dbTimeMillis", TimeUnit.NANOSECONDS.toMillis(session.dbNanos.get()));
+            entry.put("queueTimeMillis", TimeUnit.NANOSECONDS.toMillis(session.queueNanos.get()));
+            entry.put("lastSeen", session.lastSeen);
+            sessionMetrics.add(entry);
+        }
+        metrics.put("sessions", sessionMetrics);
+        return metrics;
+    }
+
+    private SessionState session(String apiKey, String address, String clientSessionId) {
+        String sessionId;
+        if (apiKey != null) {
+            sessionId = "key-" + fingerprint(apiKey);
+        } else if (clientSessionId != null) {
+            // The connection id authorizes watch and session access, so only its fingerprint is exposed
+            sessionId = address + "/conn-" + fingerprint(clientSessionId);
+        } else {
+            sessionId = address;
+        }
+
+        SessionState session = sessions.get(sessionId);
+        if (session != null) {
+            return session;
+        }
+        synchronized (sessions) {
+            session = sessions.get(sessionId);
+            if (session != null) {
+                return session;
+            }
+
+            long now = System.currentTimeMillis();
+            if (now - lastEviction > EVICTION_INTERVAL_MILLIS || sessions.size() >= MAX_SESSIONS) {
+                evictIdleSessions(now);
+            }
+            if (apiKey == null && clientSessionId != null && countSessions(address) >= config.getMaxSessionsPerAddress()) {
+                // Over the per-address limit: share the address session instead of opening another one
+                return session(null, address, null);
+            }
+            if (sessions.size() >= MAX_SESSIONS) {
+                sessions.values().stream()
+                    .min(Comparator.comparingLong(s -> s.lastSeen))
+                    .ifPresent(oldest -> sessions.remove(oldest.id));
+            }
+
+            session = new SessionState(sessionId, apiKey == null && clientSessionId != null ? address : null, weightFor(apiKey));
+            sessions.put(sessionId, session);
+            return session;
+        }
+    }
+
+    private void evictIdleSessions(long now) {
+        sessions.values().removeIf(s -> now - s.lastSeen > IDLE_SESSION_MILLIS);
+        lastEviction = now;
+    }
+
+    private int countSessions(String address) {
+        int count = 0;
+        for (SessionState session : sessions.values()) {
+            if (address.equals(session.address)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Identifies an API key or connection id in session ids and metrics without exposing it.
+     */
+    private static String fingerprint(String secret) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private double weightFor(String apiKey) {
+        Double weight = apiKey != null ? config.getSessionWeights().get(apiKey) : null;
+        return weight != null && weight > 0 ? weight : 1.0;
+    }
+
+    private void acquire(SessionState session) throws SQLException, InterruptedException {
+        synchronized (lock) {
+            // Start-time fair queueing: a session's requests are spaced 1/weight apart in virtual time
+            double startTag = Math.max(virtualTime, session.lastFinishTag);
+            session.lastFinishTag = startTag + 1.0 / session.weight;
+
+            if (running < config.getMaxConcurrentQueries() && waiting.isEmpty()) {
+                running++;
+                virtualTime = startTag;
+                return;
+            }
+
+            Waiter waiter = new Waiter(startTag, sequence++);
+            waiting.add(waiter);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.getQueueTimeoutSeconds());
+            try {
+                while (!waiter.granted) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        waiting.remove(waiter);
+                        logger.warn("Session {} timed out waiting for a database slot", session.id);
+                        throw new SQLException("Server busy: no database slot available within "
+                            + config.getQueueTimeoutSeconds() + " seconds");
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                }
+            } catch (InterruptedException e) {
+                if (waiter.granted) {
+                    releaseLocked();
+                } else {
+                    waiting.remove(waiter);
+                }
+                throw e;
+            }
+        }
+    }
+
+    private void release() {
+        synchronized (lock) {
+            releaseLocked();
+        }
+    }
+
+    private void releaseLocked() {
+        running--;
+        Waiter next = waiting.poll();
+        if (next != null) {
+            running++;
+            virtualTime = next.startTag;
+            next.granted = true;
+            lock.notifyAll();
+        }
+    }
+
+    private static class Waiter {
+        private final double startTag;
+        private final long sequence;
+        private boolean granted;
+
+        Waiter(double startTag, long sequence) {
+            this.startTag = startTag;
+            this.sequence = sequence;
+        }
+    }
+
+    private static class SessionState {
+        private final String id;
+        // Set only for per-connection sessions of anonymous callers, which count towards the per-address limit
+        private final String address;
+        private final double weight;
+        private double tokens = -1;
+        private long lastRefill = System.nanoTime();
+        private double lastFinishTag;
+        private volatile long lastSeen = System.currentTimeMillis();
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong rowsReturned = new AtomicLong();
+        private final AtomicLong dbNanos = new AtomicLong();
+        private final AtomicLong queueNanos = new AtomicLong();
+
+        SessionState(String id, String address, double weight) {
+            this.id = id;
+            this.address = address;
+            this.weight = weight;
+        }
+
+        synchronized boolean tryConsumeToken(double ratePerSecond, int burst) {
+            if (ratePerSecond <= 0) {
+                return true;
+            }
+
+            long now = System.nanoTime();
+            tokens = tokens < 0 ? burst : Math.min(burst, tokens + (now - lastRefill) / 1e9 * ratePerSecond);
+            lastRefill = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+}
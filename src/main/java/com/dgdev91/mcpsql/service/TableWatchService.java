@@ -0,0 +1,258 @@
+package com.dgdev91.mcpsql.service;
+
+import com.dgdev91.mcpsql.model.ColumnInfo;
+import com.dgdev91.mcpsql.model.TableInfo;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Polls watched tables for new rows using a keyset predicate on a monotonic column
+ * and pushes them to subscribers as notifications. All watches share one scheduler thread,
+ * and subscribers of the same table and column share a single poll. Each subscription belongs
+ * to an owner (a client connection), which alone receives its notifications and can cancel it.
+ */
+public class TableWatchService {
+    private static final Logger logger = LogManager.getLogger(TableWatchService.class);
+    private static final int MAX_ROWS_PER_POLL = 1000;
+    private static final int MAX_WATCHED_TABLES = 50;
+    private static final long MIN_INTERVAL_MILLIS = 1000;
+    private static final long MAX_INTERVAL_MILLIS = 30000;
+
+    private final DatabaseService databaseService;
+    private final BiConsumer<String, Map<String, Object>> notificationSink;
+    private final Map<String, TableWatch> watches = new ConcurrentHashMap<>();
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "table-watch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param notificationSink receives the owner and params of each notification; the caller
+     *                         wraps and delivers them to that owner's connection
+     */
+    public TableWatchService(DatabaseService databaseService, BiConsumer<String, Map<String, Object>> notificationSink) {
+        this.databaseService = databaseService;
+        this.notificationSink = notificationSink;
+    }
+
+    /**
+     * Subscribes to new rows of a table. Only rows inserted after the call are reported.
+     * Returns the subscription id.
+     *
+     * @param owner identifies the connection that receives the notifications
+     */
+    public synchronized String watch(String schema, String tableName, String columnName, String owner) throws SQLException {
+        ColumnInfo column = findColumn(databaseService.getTableStructure(schema, tableName), columnName);
+        if (!isMonotonicType(column.getSqlType())) {
+            throw new SQLException("Column " + columnName + " has type " + column.getDataType()
+                + "; watch_table needs a numeric or date/time column that only increases");
+        }
+
+        String watchKey = schema + "." + tableName + "." + columnName;
+        TableWatch watch = watches.get(watchKey);
+        if (watch == null) {
+            if (watches.size() >= MAX_WATCHED_TABLES) {
+                throw new SQLException("Cannot watch more than " + MAX_WATCHED_TABLES + " tables at once");
+            }
+            watch = new TableWatch(watchKey, schema, tableName, column.getColumnName());
+            watch.lastSeen = databaseService.queryMaxValue(schema, tableName, column.getColumnName());
+            watches.put(watchKey, watch);
+            schedule(watch);
+            logger.info("Started watching {} from {} = {}", watchKey, columnName, watch.lastSeen);
+        }
+
+        String subscriptionId = UUID.randomUUID().toString();
+        watch.subscriptionIds.add(subscriptionId);
+        subscriptions.put(subscriptionId, new Subscription(watch, owner));
+        return subscriptionId;
+    }
+
+    public synchronized void unwatch(String subscriptionId, String owner) throws SQLException {
+        remove(getSubscription(subscriptionId, owner).watch(), subscriptionId);
+    }
+
+    /**
+     * Cancels every subscription of an owner, e.g. when its connection closes.
+     */
+    public synchronized void unwatchAll(String owner) {
+        for (Map.Entry<String, Subscription> entry : new ArrayList<>(subscriptions.entrySet())) {
+            if (entry.getValue().owner().equals(owner)) {
+                remove(entry.getValue().watch(), entry.getKey());
+            }
+        }
+    }
+
+    private void remove(TableWatch watch, String subscriptionId) {
+        subscriptions.remove(subscriptionId);
+        watch.subscriptionIds.remove(subscriptionId);
+        if (watch.subscriptionIds.isEmpty()) {
+            watches.remove(watch.key);
+            if (watch.nextPoll != null) {
+                watch.nextPoll.cancel(false);
+            }
+            logger.info("Stopped watching {}", watch.key);
+        }
+    }
+
+    public Map<String, Object> describe(String subscriptionId, String owner) throws SQLException {
+        TableWatch watch = getSubscription(subscriptionId, owner).watch();
+
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("subscriptionId", subscriptionId);
+        description.put("schema", watch.schema);
+        description.put("table", watch.tableName);
+        description.put("column", watch.columnName);
+        description.put("lastSeen", watch.lastSeen);
+        description.put("intervalMillis", watch.intervalMillis);
+        description.put("subscribers", watch.subscriptionIds.size());
+        return description;
+    }
+
+    private Subscription getSubscription(String subscriptionId, String owner) throws SQLException {
+        Subscription subscription = subscriptionId != null ? subscriptions.get(subscriptionId) : null;
+        // Other owners' subscriptions are reported as unknown rather than revealed
+        if (subscription == null || !subscription.owner().equals(owner)) {
+            throw new SQLException("Unknown subscription: " + subscriptionId);
+        }
+        return subscription;
+    }
+
+    private void schedule(TableWatch watch) {
+        watch.nextPoll = scheduler.schedule(() -> poll(watch), watch.intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void poll(TableWatch watch) {
+        if (watch.subscriptionIds.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<Map<String, Object>> rows = databaseService.queryRowsAfter(
+                watch.schema, watch.tableName, watch.columnName, watch.lastSeen, MAX_ROWS_PER_POLL);
+
+            if (rows.size() >= MAX_ROWS_PER_POLL) {
+                rows = holdBackBoundaryRows(watch, rows);
+            }
+            if (rows.isEmpty()) {
+                // Quiet table: back off gradually
+                watch.intervalMillis = Math.min(MAX_INTERVAL_MILLIS, watch.intervalMillis * 3 / 2);
+            } else {
+                watch.lastSeen = rows.get(rows.size() - 1).get(watch.columnName);
+                // Busy table: poll again sooner; a full page means more rows are already waiting
+                watch.intervalMillis = rows.size() >= MAX_ROWS_PER_POLL
+                    ? MIN_INTERVAL_MILLIS
+                    : Math.max(MIN_INTERVAL_MILLIS, watch.intervalMillis / 2);
+                notify(watch, rows);
+            }
+        } catch (Exception e) {
+            logger.warn("Polling {} failed: {}", watch.key, e.getMessage());
+            watch.intervalMillis = MAX_INTERVAL_MILLIS;
+        }
+
+        if (!watch.subscriptionIds.isEmpty()) {
+            schedule(watch);
+        }
+    }
+
+    /**
+     * On a full page, rows after the limit may share the last row's value (timestamps repeat),
+     * and the next poll's strict predicate would skip them. The trailing rows with that value
+     * are dropped here and fetched again, together with the rest of their value, on the next poll.
+     */
+    private List<Map<String, Object>> holdBackBoundaryRows(TableWatch watch, List<Map<String, Object>> rows) {
+        Object boundary = rows.get(rows.size() - 1).get(watch.columnName);
+        int end = rows.size();
+        while (end > 0 && Objects.equals(rows.get(end - 1).get(watch.columnName), boundary)) {
+            end--;
+        }
+        if (end == 0) {
+            // The whole page shares one value: there is no earlier point to resume from
+            logger.warn("More than {} rows of {} share {} = {}; rows beyond the page may be missed",
+                MAX_ROWS_PER_POLL, watch.key, watch.columnName, boundary);
+            return rows;
+        }
+        return rows.subList(0, end);
+    }
+
+    private void notify(TableWatch watch, List<Map<String, Object>> rows) {
+        // One notification per owner, listing only that owner's subscriptions
+        Map<String, List<String>> subscriptionIdsByOwner = new LinkedHashMap<>();
+        for (String subscriptionId : watch.subscriptionIds) {
+            Subscription subscription = subscriptions.get(subscriptionId);
+            if (subscription != null) {
+                subscriptionIdsByOwner.computeIfAbsent(subscription.owner(), k -> new ArrayList<>()).add(subscriptionId);
+            }
+        }
+
+        for (Map.Entry<String, List<String>> entry : subscriptionIdsByOwner.entrySet()) {
+            Map<String, Object> params = new LinkedHashMap<>();
+            params.put("subscriptionIds", entry.getValue());
+            params.put("schema", watch.schema);
+            params.put("table", watch.tableName);
+            params.put("column", watch.columnName);
+            params.put("lastSeen", watch.lastSeen);
+            params.put("rows", rows);
+
+            try {
+                notificationSink.accept(entry.getKey(), params);
+            } catch (Exception e) {
+                logger.error("Error delivering watch notification for {}", watch.key, e);
+            }
+        }
+    }
+
+    private ColumnInfo findColumn(TableInfo tableInfo, String columnName) throws SQLException {
+        for (ColumnInfo column : tableInfo.getColumns()) {
+            if (column.getColumnName().equals(columnName)) {
+                return column;
+            }
+        }
+        throw new SQLException("Unknown column: " + columnName);
+    }
+
+    private boolean isMonotonicType(int sqlType) {
+        switch (sqlType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+            case Types.DATE:
+            case Types.TIMESTAMP:
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private record Subscription(TableWatch watch, String owner) {
+    }
+
+    private static class TableWatch {
+        private final String key;
+        private final String schema;
+        private final String tableName;
+        private final String columnName;
+        private final Set<String> subscriptionIds = ConcurrentHashMap.newKeySet();
+        private volatile Object lastSeen;
+        private volatile long intervalMillis = MIN_INTERVAL_MILLIS;
+        private volatile ScheduledFuture<?> nextPoll;
+
+        TableWatch(String key, String schema, String tableName, String columnName) {
+            this.key = key;
+            this.schema = schema;
+            this.tableName = tableName;
+            this.columnName = columnName;
+        }
+    }
+}